@@ -0,0 +1,179 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rdd;
+
+import com.starrocks.connector.spark.backend.MockBackendServer;
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import com.starrocks.connector.spark.serialization.ArrowBatchGenerator;
+import com.starrocks.connector.spark.sql.ScalaStarrocksRowValueReader;
+import com.starrocks.connector.spark.sql.read.StarRocksPartitionReader;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_DESERIALIZE_ARROW_ASYNC;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
+
+/**
+ * Measures reading a partition from {@link MockBackendServer}, which includes the thrift
+ * calls, decoding arrow batches and converting the values to the rows of each read path:
+ * the values of {@link ScalaValueReader}, the rows of the RDD and the internal rows of the
+ * DataSource V2 read. The latency of BE is simulated by the mock server, so the effect of
+ * deserializing asynchronously can be measured. The rows read per second are reported as "rows".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadThroughputBenchmark {
+
+    private static final List<String> TYPES = Arrays.asList("INT", "BIGINT", "VARCHAR", "DOUBLE", "DECIMAL128");
+
+    @Param({"1024", "8192"})
+    public int rowsPerBatch;
+
+    // latency of each get_next in milliseconds
+    @Param({"0", "5"})
+    public long latencyMs;
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private MockBackendServer server;
+    private PartitionDefinition partition;
+    private StructType readSchema;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // about one million rows for each scan
+        server = new MockBackendServer(TYPES, rowsPerBatch, 1024 * 1024 / rowsPerBatch, 0.1, latencyMs).start();
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_DESERIALIZE_ARROW_ASYNC, String.valueOf(async));
+        List<String> columns = new ArrayList<>();
+        StructField[] fields = new StructField[TYPES.size()];
+        for (int i = 0; i < TYPES.size(); i++) {
+            columns.add(ArrowBatchGenerator.columnName(i));
+            fields[i] = DataTypes.createStructField(ArrowBatchGenerator.columnName(i), sparkType(TYPES.get(i)), true);
+        }
+        settings.setProperty(STARROCKS_READ_FIELD, String.join(",", columns));
+        partition = new PartitionDefinition("db", "tbl", settings,
+                server.getAddress(), Collections.singleton(1L), "plan");
+        readSchema = DataTypes.createStructType(fields);
+    }
+
+    private static DataType sparkType(String type) {
+        switch (type) {
+            case "INT":
+                return DataTypes.IntegerType;
+            case "BIGINT":
+                return DataTypes.LongType;
+            case "DOUBLE":
+                return DataTypes.DoubleType;
+            case "DECIMAL128":
+                return DataTypes.createDecimalType(
+                        ArrowBatchGenerator.DECIMAL_PRECISION, ArrowBatchGenerator.DECIMAL_SCALE);
+            default:
+                return DataTypes.StringType;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Benchmark
+    public void valueReader(RowCounter counter, Blackhole blackhole) throws Exception {
+        ScalaValueReader reader = new ScalaValueReader(partition, partition.settings());
+        try {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+                counter.rows++;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public void rddRowReader(RowCounter counter, Blackhole blackhole) throws Exception {
+        ScalaValueReader reader = new ScalaStarrocksRowValueReader(partition, partition.settings());
+        try {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+                counter.rows++;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public void internalRowReader(RowCounter counter, Blackhole blackhole) throws Exception {
+        StarRocksPartitionReader reader = new StarRocksPartitionReader(partition, readSchema);
+        try {
+            while (reader.next()) {
+                InternalRow row = reader.get();
+                blackhole.consume(row);
+                counter.rows++;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.serialization;
+
+import com.starrocks.connector.spark.rest.models.Schema;
+import com.starrocks.thrift.TScanBatchResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the arrow batches from StarRocks BE into rows with {@link RowBatch}.
+ * The number of decoded rows per second is reported as "rows", and the allocation rate
+ * can be reported by running with "-prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowBatchBenchmark {
+
+    // a single type, or ALL for a batch with a column of each type
+    @Param({"INT", "BIGINT", "DOUBLE", "VARCHAR", "DECIMAL", "DECIMAL128", "DATE", "DATETIME", "ALL"})
+    public String type;
+
+    @Param({"1024", "4096", "16384"})
+    public int batchSize;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nullRatio;
+
+    private Schema schema;
+    private TScanBatchResult batchResult;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<String> types = "ALL".equals(type)
+                ? ArrowBatchGenerator.TYPES : Collections.singletonList(type);
+        ArrowBatchGenerator generator = new ArrowBatchGenerator(types, nullRatio, 16, 42);
+        schema = generator.schema();
+        batchResult = ArrowBatchGenerator.toBatchResult(generator.generate(batchSize), false);
+    }
+
+    @Benchmark
+    public void decode(RowCounter counter, Blackhole blackhole) throws Exception {
+        RowBatch rowBatch = new RowBatch(batchResult, schema);
+        while (rowBatch.hasNext()) {
+            blackhole.consume(rowBatch.next());
+        }
+        counter.rows += rowBatch.getReadRowCount();
+    }
+}
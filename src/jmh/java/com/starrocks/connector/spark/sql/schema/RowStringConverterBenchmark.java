@@ -0,0 +1,154 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.schema;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.DecimalType;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting rows to CSV and JSON on the write path. An operation is a row, so the
+ * throughput is in rows per second, and "-prof gc" reports the bytes allocated per row as
+ * gc.alloc.rate.norm. The size of the converted rows per second is reported as "bytes".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowStringConverterBenchmark {
+
+    private static final int ROWS = 1024;
+
+    private static final DataType[] TYPES = new DataType[] {
+            DataTypes.IntegerType, DataTypes.LongType, DataTypes.StringType, DataTypes.DoubleType,
+            DataTypes.createDecimalType(27, 9), DataTypes.DateType, DataTypes.TimestampType,
+            DataTypes.BooleanType, DataTypes.ShortType, DataTypes.FloatType
+    };
+
+    @Param({"csv", "json"})
+    public String format;
+
+    // number of columns, and the column types are repeated in the order of TYPES
+    @Param({"4", "64"})
+    public int columns;
+
+    @Param({"0.0", "0.2"})
+    public double nullRatio;
+
+    private RowStringConverter converter;
+    private InternalRow[] rows;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ByteCounter {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StructField[] fields = new StructField[columns];
+        for (int i = 0; i < columns; i++) {
+            fields[i] = DataTypes.createStructField("c" + i, TYPES[i % TYPES.length], true);
+        }
+        StructType schema = DataTypes.createStructType(fields);
+        converter = "csv".equals(format)
+                ? new CsvRowStringConverter(schema, "\t")
+                : new JSONRowStringConverter(schema);
+
+        Random random = new Random(42);
+        rows = new InternalRow[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = random.nextDouble() < nullRatio ? null : randomValue(fields[i].dataType(), random);
+            }
+            rows[row] = new GenericInternalRow(values);
+        }
+    }
+
+    private static Object randomValue(DataType type, Random random) {
+        if (type == DataTypes.IntegerType) {
+            return random.nextInt();
+        } else if (type == DataTypes.LongType) {
+            return random.nextLong();
+        } else if (type == DataTypes.StringType) {
+            return UTF8String.fromString(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        } else if (type == DataTypes.DoubleType) {
+            return random.nextDouble();
+        } else if (type instanceof DecimalType) {
+            return Decimal.apply(new BigDecimal(BigInteger.valueOf(random.nextLong()), 9));
+        } else if (type == DataTypes.DateType) {
+            // days since epoch
+            return random.nextInt(36500);
+        } else if (type == DataTypes.TimestampType) {
+            // microseconds since epoch
+            return (long) (random.nextDouble() * 3.0e15);
+        } else if (type == DataTypes.BooleanType) {
+            return random.nextBoolean();
+        } else if (type == DataTypes.ShortType) {
+            return (short) random.nextInt();
+        } else {
+            return random.nextFloat();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convert(ByteCounter counter, Blackhole blackhole) {
+        for (InternalRow row : rows) {
+            String data = converter.fromRow(row);
+            counter.bytes += data.length();
+            blackhole.consume(data);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import com.starrocks.connector.spark.rest.MockFrontendServer;
+import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a write task of {@link StarRocksDataWriter} against {@link MockFrontendServer},
+ * which includes converting the rows, buffering them in the stream load manager, and loading
+ * them with transaction stream load. The latency and failures of loads are simulated by the
+ * mock server, so the effect of the buffer size and the retries can be measured. An operation
+ * is a row, and the loads, failed loads and loaded bytes per second are reported as "loads",
+ * "failedLoads" and "bytes".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class WriteThroughputBenchmark {
+
+    // rows written by each task
+    private static final int ROWS = 256 * 1024;
+    // distinct rows which are written repeatedly
+    private static final int DISTINCT_ROWS = 1024;
+
+    @Param({"csv", "json"})
+    public String format;
+
+    @Param({"4m", "64m"})
+    public String bufferSize;
+
+    // latency of each load in milliseconds
+    @Param({"0", "50"})
+    public long latencyMs;
+
+    @Param({"0.0", "0.05"})
+    public double failureRatio;
+
+    private final AtomicLong taskIds = new AtomicLong();
+
+    private MockFrontendServer server;
+    private StarRocksWriterFactory writerFactory;
+    private InternalRow[] rows;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LoadCounter {
+        public long loads;
+        public long failedLoads;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            loads = 0;
+            failedLoads = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new MockFrontendServer()
+                .setLatencyMs(latencyMs)
+                .setFailure(failureRatio, "injected failure")
+                .start();
+
+        Map<String, String> options = new HashMap<>();
+        options.put("starrocks.fe.http.url", server.getUrl());
+        options.put("starrocks.fe.jdbc.url", "jdbc:mysql://127.0.0.1:9030");
+        options.put("starrocks.table.identifier", "db.tbl");
+        options.put("starrocks.user", "root");
+        options.put("starrocks.password", "");
+        options.put("starrocks.write.properties.format", format);
+        options.put("starrocks.write.buffer.size", bufferSize);
+        options.put("starrocks.write.max.retries", "3");
+        options.put("starrocks.write.retry.interval.ms", "10");
+        WriteStarRocksConfig config = new WriteStarRocksConfig(options);
+
+        StructType schema = DataTypes.createStructType(new StructField[] {
+                DataTypes.createStructField("id", DataTypes.LongType, false),
+                DataTypes.createStructField("name", DataTypes.StringType, true),
+                DataTypes.createStructField("score", DataTypes.DoubleType, true),
+                DataTypes.createStructField("amount", DataTypes.createDecimalType(27, 9), true),
+                DataTypes.createStructField("dt", DataTypes.DateType, true),
+                DataTypes.createStructField("ts", DataTypes.TimestampType, true)
+        });
+        writerFactory = new StarRocksWriterFactory(schema, config);
+
+        Random random = new Random(42);
+        rows = new InternalRow[DISTINCT_ROWS];
+        for (int i = 0; i < DISTINCT_ROWS; i++) {
+            rows[i] = new GenericInternalRow(new Object[] {
+                    random.nextLong(),
+                    UTF8String.fromString(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong())),
+                    random.nextDouble(),
+                    Decimal.apply(new BigDecimal(BigInteger.valueOf(random.nextLong()), 9)),
+                    random.nextInt(36500),
+                    (long) (random.nextDouble() * 3.0e15)
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void writeTask(LoadCounter counter) throws Exception {
+        long loads = server.getLoadCount();
+        long failedLoads = server.getFailedLoadCount();
+        long bytes = server.getLoadedBytes();
+
+        long taskId = taskIds.incrementAndGet();
+        DataWriter<InternalRow> writer = writerFactory.createWriter((int) taskId, taskId);
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(rows[i % DISTINCT_ROWS]);
+            }
+            writer.commit();
+        } catch (Exception e) {
+            writer.abort();
+            throw e;
+        } finally {
+            writer.close();
+        }
+
+        counter.loads += server.getLoadCount() - loads;
+        counter.failedLoads += server.getFailedLoadCount() - failedLoads;
+        counter.bytes += server.getLoadedBytes() - bytes;
+    }
+}
@@ -38,12 +38,26 @@ import com.starrocks.thrift.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Client to request StarRocks BE
  */
 public class BackendClient {
     private static Logger logger = LoggerFactory.getLogger(BackendClient.class);
 
+    // permits of the scanners opened on each BE by this executor, keyed by the BE and the limit
+    private static final Map<String, Semaphore> SCAN_PERMITS = new ConcurrentHashMap<>();
+    // keys of the permits held by the scanners opened by each thread. A thread holding a permit of
+    // a BE opens more scanners on it without waiting, since it would otherwise wait for itself
+    private static final ThreadLocal<Set<String>> HELD_PERMITS =
+            ThreadLocal.withInitial(ConcurrentHashMap::newKeySet);
+
     private Routing routing;
 
     private TStarrocksExternalService.Client client;
@@ -53,6 +67,12 @@ public class BackendClient {
     private final int retries;
     private final int socketTimeout;
     private final int connectTimeout;
+    private final int maxScansPerBe;
+    private final int queryTimeoutS;
+    // permit held from opening the scanner until closing it, and the permits held by its thread
+    private Semaphore scanPermit;
+    private String scanPermitKey;
+    private Set<String> heldPermits;
 
     public BackendClient(Routing routing, Settings settings) throws ConnectedFailedException {
         this.routing = routing;
@@ -62,6 +82,10 @@ public class BackendClient {
                 ConfigurationOptions.STARROCKS_REQUEST_READ_TIMEOUT_MS_DEFAULT);
         this.retries = settings.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_RETRIES,
                 ConfigurationOptions.STARROCKS_REQUEST_RETRIES_DEFAULT);
+        this.maxScansPerBe = settings.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_MAX_SCANS_PER_BE,
+                ConfigurationOptions.STARROCKS_REQUEST_MAX_SCANS_PER_BE_DEFAULT);
+        this.queryTimeoutS = settings.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_QUERY_TIMEOUT_S,
+                ConfigurationOptions.STARROCKS_REQUEST_QUERY_TIMEOUT_S_DEFAULT);
         logger.trace("connect timeout set to '{}'. socket timeout set to '{}'. retries set to '{}'.",
                 this.connectTimeout, this.socketTimeout, this.retries);
         open();
@@ -117,6 +141,78 @@ public class BackendClient {
      * @throws ConnectedFailedException throw if cannot connect to StarRocks BE
      */
     public TScanOpenResult openScanner(TScanOpenParams openParams) throws ConnectedFailedException {
+        acquireScanPermit();
+        boolean opened = false;
+        try {
+            TScanOpenResult result = doOpenScanner(openParams);
+            opened = true;
+            return result;
+        } finally {
+            if (!opened) {
+                releaseScanPermit();
+            }
+        }
+    }
+
+    /**
+     * Wait until the number of scanners opened on the BE by this executor is less than
+     * starrocks.request.max.scans.per.be, so that the tasks don't overload a BE. The wait is
+     * at most starrocks.request.query.timeout.s, after which the scan fails, or unbounded if the
+     * timeout is not positive. The permits are granted in the order of the waiting tasks.
+     */
+    private void acquireScanPermit() throws ConnectedFailedException {
+        if (maxScansPerBe <= 0 || scanPermit != null) {
+            return;
+        }
+        String permitKey = routing + "/" + maxScansPerBe;
+        Set<String> threadPermits = HELD_PERMITS.get();
+        if (threadPermits.contains(permitKey)) {
+            logger.debug("Open scanner on {} without a permit, since the thread already holds one.", routing);
+            return;
+        }
+        Semaphore permits = SCAN_PERMITS.computeIfAbsent(permitKey, key -> new Semaphore(maxScansPerBe, true));
+        boolean acquired;
+        try {
+            // tryAcquire() without a timeout takes a free permit ahead of the waiting tasks,
+            // while the timed one keeps the fairness of the semaphore
+            acquired = permits.tryAcquire(0, TimeUnit.SECONDS);
+            if (!acquired) {
+                logger.info("Wait to open scanner on {}, which has {} scanners opened by this executor.",
+                        routing, maxScansPerBe);
+                long start = System.currentTimeMillis();
+                if (queryTimeoutS > 0) {
+                    acquired = permits.tryAcquire(queryTimeoutS, TimeUnit.SECONDS);
+                } else {
+                    permits.acquire();
+                    acquired = true;
+                }
+                if (acquired) {
+                    logger.info("Waited {} ms to open scanner on {}.", System.currentTimeMillis() - start, routing);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectedFailedException(routing.toString(), e);
+        }
+        if (!acquired) {
+            throw new ConnectedFailedException(routing.toString(), new TimeoutException(
+                    "No scanner on the BE was closed in " + queryTimeoutS + " s"));
+        }
+        threadPermits.add(permitKey);
+        scanPermit = permits;
+        scanPermitKey = permitKey;
+        heldPermits = threadPermits;
+    }
+
+    private void releaseScanPermit() {
+        if (scanPermit != null) {
+            heldPermits.remove(scanPermitKey);
+            scanPermit.release();
+            scanPermit = null;
+        }
+    }
+
+    private TScanOpenResult doOpenScanner(TScanOpenParams openParams) throws ConnectedFailedException {
         logger.debug("OpenScanner to '{}', parameter is '{}'.", routing, openParams);
         if (!isConnected) {
             open();
@@ -200,6 +296,7 @@ public class BackendClient {
                 open();
             } catch (ConnectedFailedException e) {
                 logger.warn("Cannot connect to StarRocks BE {} when close scanner.", routing);
+                releaseScanPermit();
                 return;
             }
         }
@@ -223,5 +320,6 @@ public class BackendClient {
         }
         logger.info("CloseScanner to StarRocks BE '{}' success.", routing);
         close();
+        releaseScanPermit();
     }
 }
@@ -0,0 +1,116 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.backend;
+
+import com.starrocks.connector.spark.cfg.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_ROW_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_SIZE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_SIZE_AUTO;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_SIZE_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_TARGET_BYTES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_TARGET_BYTES_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
+
+/**
+ * Choose the batch size of a scan if starrocks.batch.size is auto, so that a batch returned by
+ * BE has about starrocks.batch.target.bytes. The bytes of a row are averaged over the batches of
+ * the previous scans of the same columns in this JVM, or estimated by the types of the columns
+ * before any batch is read. BE can't change the batch size after the scanner is opened, so the
+ * bytes observed in a scan are used by the scans opened later.
+ */
+public final class BatchSizeTuner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchSizeTuner.class);
+
+    static final int MIN_BATCH_SIZE = 64;
+    static final int MAX_BATCH_SIZE = 1 << 20;
+    private static final int MAX_OBSERVED_KEYS = 1024;
+    // weight of the bytes of the latest batch in the average
+    private static final double OBSERVED_WEIGHT = 0.25;
+
+    // average bytes of a row, keyed by the table and the read fields
+    private static final Map<String, Double> OBSERVED_ROW_BYTES = new ConcurrentHashMap<>();
+
+    private BatchSizeTuner() {
+    }
+
+    public static boolean isAuto(Settings settings) {
+        return STARROCKS_BATCH_SIZE_AUTO.equalsIgnoreCase(settings.getProperty(STARROCKS_BATCH_SIZE));
+    }
+
+    public static int batchSize(String database, String table, Settings settings) {
+        int targetBytes = settings.getIntegerProperty(
+                STARROCKS_BATCH_TARGET_BYTES, STARROCKS_BATCH_TARGET_BYTES_DEFAULT);
+        Double rowBytes = OBSERVED_ROW_BYTES.get(key(database, table, settings));
+        if (rowBytes == null) {
+            rowBytes = estimateRowBytes(settings);
+        }
+        if (rowBytes == null) {
+            return STARROCKS_BATCH_SIZE_DEFAULT;
+        }
+        int batchSize = (int) Math.max(MIN_BATCH_SIZE,
+                Math.min(MAX_BATCH_SIZE, targetBytes / Math.max(1.0, rowBytes)));
+        LOG.debug("Choose batch size {} for {}.{} by {} bytes of a row", batchSize, database, table, rowBytes);
+        return batchSize;
+    }
+
+    /**
+     * Record the bytes of a batch returned by BE.
+     */
+    public static void observe(String database, String table, Settings settings, long bytes, int rows) {
+        if (rows <= 0) {
+            return;
+        }
+        String key = key(database, table, settings);
+        if (OBSERVED_ROW_BYTES.size() >= MAX_OBSERVED_KEYS && !OBSERVED_ROW_BYTES.containsKey(key)) {
+            OBSERVED_ROW_BYTES.clear();
+        }
+        OBSERVED_ROW_BYTES.merge(key, (double) bytes / rows,
+                (average, latest) -> average * (1 - OBSERVED_WEIGHT) + latest * OBSERVED_WEIGHT);
+    }
+
+    // Bytes of a row estimated when planning, which is null if unknown, such as for the RDD API
+    private static Double estimateRowBytes(Settings settings) {
+        String estimate = settings.getProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE);
+        if (estimate == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(estimate);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid estimated bytes of a row: {}", estimate);
+            return null;
+        }
+    }
+
+    private static String key(String database, String table, Settings settings) {
+        return database + "." + table + ":" + settings.getProperty(STARROCKS_READ_FIELD, "*");
+    }
+
+    static void clearObserved() {
+        OBSERVED_ROW_BYTES.clear();
+    }
+}
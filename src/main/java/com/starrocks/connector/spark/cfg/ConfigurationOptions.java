@@ -47,13 +47,40 @@ public interface ConfigurationOptions {
     int STARROCKS_REQUEST_CONNECT_TIMEOUT_MS_DEFAULT = 30 * 1000;
     int STARROCKS_REQUEST_READ_TIMEOUT_MS_DEFAULT = 30 * 1000;
     int STARROCKS_REQUEST_QUERY_TIMEOUT_S_DEFAULT = 3600;
+    // max number of scanners opened on a BE by the tasks of an executor, 0 means no limit
+    String STARROCKS_REQUEST_MAX_SCANS_PER_BE = "starrocks.request.max.scans.per.be";
+    int STARROCKS_REQUEST_MAX_SCANS_PER_BE_DEFAULT = 0;
+    // hosts of BE mapped to the hosts of executors, such as "be_host1=executor_host1,be_host2=executor_host2"
+    String STARROCKS_REQUEST_BE_HOST_MAPPING = "starrocks.request.be.host.mapping";
+    // whether to read a tablet from a replica on the host of a live executor if there is one
+    String STARROCKS_REQUEST_LOCALITY_ENABLED = "starrocks.request.locality.enabled";
+    boolean STARROCKS_REQUEST_LOCALITY_ENABLED_DEFAULT = false;
+    // threads requesting StarRocks FE to plan the reads at the same time in the driver
+    String STARROCKS_REQUEST_PLANNING_THREADS = "starrocks.request.planning.threads";
+    int STARROCKS_REQUEST_PLANNING_THREADS_DEFAULT = 8;
 
     String STARROCKS_TABLET_SIZE = "starrocks.request.tablet.size";
     int STARROCKS_TABLET_SIZE_DEFAULT = Integer.MAX_VALUE;
     int STARROCKS_TABLET_SIZE_MIN = 1;
+    // targets of the bytes and rows of the tablets in a partition, by which the tablets on a BE are
+    // packed into partitions instead of by starrocks.request.tablet.size
+    String STARROCKS_PARTITION_TARGET_BYTES = "starrocks.request.partition.target.bytes";
+    String STARROCKS_PARTITION_TARGET_ROWS = "starrocks.request.partition.target.rows";
+    // max number of partitions, 0 means no limit
+    String STARROCKS_PARTITION_MAX_COUNT = "starrocks.request.partition.max.count";
+    int STARROCKS_PARTITION_MAX_COUNT_DEFAULT = 0;
+    // estimated bytes and rows of a tablet, which are set by the connector when planning if not set
+    String STARROCKS_TABLET_BYTES_ESTIMATE = "starrocks.request.tablet.bytes.estimate";
+    String STARROCKS_TABLET_ROWS_ESTIMATE = "starrocks.request.tablet.rows.estimate";
 
     String STARROCKS_BATCH_SIZE = "starrocks.batch.size";
     int STARROCKS_BATCH_SIZE_DEFAULT = 1024;
+    // value of starrocks.batch.size to choose the batch size by the target bytes of a batch
+    String STARROCKS_BATCH_SIZE_AUTO = "auto";
+    String STARROCKS_BATCH_TARGET_BYTES = "starrocks.batch.target.bytes";
+    int STARROCKS_BATCH_TARGET_BYTES_DEFAULT = 1024 * 1024;
+    // estimated bytes of a row of the read fields, which is set by the connector when planning
+    String STARROCKS_BATCH_ROW_BYTES_ESTIMATE = "starrocks.batch.row.bytes.estimate";
 
     String STARROCKS_EXEC_MEM_LIMIT = "starrocks.exec.mem.limit";
     long STARROCKS_EXEC_MEM_LIMIT_DEFAULT = 2147483648L;
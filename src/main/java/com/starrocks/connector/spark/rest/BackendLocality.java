@@ -0,0 +1,119 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rest;
+
+import com.starrocks.connector.spark.cfg.Settings;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.spark.SparkContext;
+import org.apache.spark.SparkExecutorInfo;
+import org.apache.spark.sql.SparkSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Option;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_BE_HOST_MAPPING;
+
+/**
+ * Locality between StarRocks BE and Spark executors, so that the task reading the tablets of
+ * a BE is scheduled to an executor on the same host when they are deployed together.
+ */
+public final class BackendLocality {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackendLocality.class);
+
+    private static final String DRIVER_HOST = "spark.driver.host";
+
+    private BackendLocality() {
+    }
+
+    /**
+     * Parse starrocks.request.be.host.mapping, which maps the hosts of BE to those of
+     * executors, in the form of "be_host1=executor_host1,be_host2=executor_host2".
+     */
+    public static Map<String, String> parseHostMapping(Settings settings) {
+        Map<String, String> hostMapping = new HashMap<>();
+        String mapping = settings.getProperty(STARROCKS_REQUEST_BE_HOST_MAPPING);
+        if (StringUtils.isBlank(mapping)) {
+            return hostMapping;
+        }
+        for (String pair : mapping.split(",")) {
+            String[] hosts = pair.split("=");
+            if (hosts.length != 2 || hosts[0].trim().isEmpty() || hosts[1].trim().isEmpty()) {
+                LOG.warn("Ignore illegal host mapping '{}' in {}", pair, STARROCKS_REQUEST_BE_HOST_MAPPING);
+                continue;
+            }
+            hostMapping.put(hosts[0].trim(), hosts[1].trim());
+        }
+        return hostMapping;
+    }
+
+    /**
+     * The host of executors on the same host as the BE, which is the host of the BE address
+     * without the port, unless it's mapped to another host.
+     */
+    public static String executorHost(String beAddress, Map<String, String> hostMapping) {
+        int portIndex = beAddress.lastIndexOf(':');
+        String host = portIndex < 0 ? beAddress : beAddress.substring(0, portIndex);
+        return hostMapping.getOrDefault(host, host);
+    }
+
+    public static String[] preferredLocations(PartitionDefinition partition) {
+        Map<String, String> hostMapping;
+        try {
+            hostMapping = parseHostMapping(partition.settings());
+        } catch (Exception e) {
+            LOG.warn("Failed to load settings of {}", partition, e);
+            hostMapping = new HashMap<>();
+        }
+        return new String[] {executorHost(partition.getBeAddress(), hostMapping)};
+    }
+
+    /**
+     * Hosts of the live executors of the active Spark application, which is empty if there
+     * is no active session. The driver is not included unless it runs the tasks in local mode.
+     */
+    public static Set<String> liveExecutorHosts() {
+        Option<SparkSession> session = SparkSession.getActiveSession();
+        if (session.isEmpty()) {
+            session = SparkSession.getDefaultSession();
+        }
+        if (session.isEmpty()) {
+            return new HashSet<>();
+        }
+        SparkContext sparkContext = session.get().sparkContext();
+        List<String> hosts = new ArrayList<>();
+        for (SparkExecutorInfo executor : sparkContext.statusTracker().getExecutorInfos()) {
+            hosts.add(executor.host());
+        }
+        // the infos include one of the driver, which has no id to tell it from an executor on the
+        // same host, so one of the driver host is removed, and the host is kept if there are others
+        if (!sparkContext.isLocal()) {
+            hosts.remove(sparkContext.getConf().get(DRIVER_HOST, null));
+        }
+        return new HashSet<>(hosts);
+    }
+}
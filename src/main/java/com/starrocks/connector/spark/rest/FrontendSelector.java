@@ -0,0 +1,147 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rest;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Choose the StarRocks FE to request by the latency of the previous requests in this JVM.
+ * An FE not requested yet is tried first to learn its latency, then one of the healthy FEs
+ * whose average latency is close to the lowest is chosen at random, so that the requests are
+ * spread over the similar FEs instead of all going to one. An FE failing to respond is avoided
+ * for a while. After that, if it has never responded, it's probed by a single request, and
+ * avoided for another while unless the request succeeds.
+ */
+final class FrontendSelector {
+
+    // weight of the latest latency in the average
+    private static final double LATENCY_WEIGHT = 0.25;
+    // an FE is close to the fastest one if its latency is within the ratio plus the margin
+    private static final double LATENCY_MARGIN_RATIO = 1.5;
+    private static final double LATENCY_MARGIN_MS = 10;
+    @VisibleForTesting
+    static final long FAILURE_BACKOFF_MS = 30 * 1000;
+
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    private FrontendSelector() {
+    }
+
+    static String choose(List<String> nodes) {
+        return choose(nodes, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    static String choose(List<String> nodes, long now) {
+        List<String> unknown = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        Map<String, Double> healthy = new HashMap<>();
+        double fastestLatency = Double.MAX_VALUE;
+        String earliestFailed = null;
+        long earliestFailure = Long.MAX_VALUE;
+        for (String node : nodes) {
+            Stats stats = STATS.get(node);
+            if (stats == null) {
+                unknown.add(node);
+                continue;
+            }
+            synchronized (stats) {
+                if (stats.lastFailure >= 0 && now - stats.lastFailure < FAILURE_BACKOFF_MS) {
+                    if (stats.lastFailure < earliestFailure) {
+                        earliestFailed = node;
+                        earliestFailure = stats.lastFailure;
+                    }
+                } else if (stats.latencyMs < 0) {
+                    // its latency is unknown since it has only failed
+                    failed.add(node);
+                } else {
+                    healthy.put(node, stats.latencyMs);
+                    fastestLatency = Math.min(fastestLatency, stats.latencyMs);
+                }
+            }
+        }
+        if (!unknown.isEmpty()) {
+            return unknown.get(ThreadLocalRandom.current().nextInt(unknown.size()));
+        }
+        for (String node : failed) {
+            Stats stats = STATS.get(node);
+            synchronized (stats) {
+                // the backoff restarts, so the other requests avoid the FE while it's probed
+                if (now - stats.lastFailure >= FAILURE_BACKOFF_MS) {
+                    stats.lastFailure = now;
+                    return node;
+                }
+            }
+        }
+        if (healthy.isEmpty()) {
+            // all have failed recently, so try the one which has been avoided for the longest time
+            return earliestFailed;
+        }
+        double maxLatency = fastestLatency * LATENCY_MARGIN_RATIO + LATENCY_MARGIN_MS;
+        List<String> candidates = new ArrayList<>();
+        for (String node : nodes) {
+            Double latency = healthy.get(node);
+            if (latency != null && latency <= maxLatency) {
+                candidates.add(node);
+            }
+        }
+        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    static void recordLatency(String node, long latencyMs) {
+        Stats stats = STATS.computeIfAbsent(node, key -> new Stats());
+        synchronized (stats) {
+            stats.latencyMs = stats.latencyMs < 0
+                    ? latencyMs : stats.latencyMs * (1 - LATENCY_WEIGHT) + latencyMs * LATENCY_WEIGHT;
+            stats.lastFailure = -1;
+        }
+    }
+
+    static void recordFailure(String node) {
+        recordFailure(node, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    static void recordFailure(String node, long now) {
+        Stats stats = STATS.computeIfAbsent(node, key -> new Stats());
+        synchronized (stats) {
+            stats.lastFailure = now;
+        }
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        STATS.clear();
+    }
+
+    private static class Stats {
+        // average latency in milliseconds, which is -1 before the first response
+        private double latencyMs = -1;
+        // time of the last failure since the last response, which is -1 if there is none
+        private long lastFailure = -1;
+    }
+}
@@ -19,41 +19,109 @@
 
 package com.starrocks.connector.spark.rest;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.starrocks.connector.spark.cfg.PropertiesSettings;
 import com.starrocks.connector.spark.cfg.Settings;
 import com.starrocks.connector.spark.exception.IllegalArgumentException;
+import org.apache.spark.SparkContext;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
 
 /**
  * Starrocks RDD partition info.
+ *
+ * <p>The settings and the query plan are the same for the partitions planned together, so they
+ * are kept in a {@link Context} shared by the partitions, which can be broadcast to send it to
+ * each executor once instead of with each task. The tablet ids are kept in a compact form.
  */
 public class PartitionDefinition implements Serializable, Comparable<PartitionDefinition> {
-    private final String database;
-    private final String table;
+    private static final String SETTINGS_PREFIX = "starrocks.";
 
     private final String beAddress;
-    private final Set<Long> tabletIds;
-    private final String queryPlan;
-    private final String serializedSettings;
+    // sorted tablet ids, encoded as the differences to the previous ids in variable length
+    private final byte[] encodedTabletIds;
+    // exactly one of the context and its broadcast is set
+    private final Context context;
+    private final Broadcast<Context> broadcastContext;
+
+    private transient Set<Long> tabletIds;
 
     public PartitionDefinition(String database, String table,
                                Settings settings, String beAddress, Set<Long> tabletIds, String queryPlan)
             throws IllegalArgumentException {
-        if (settings != null) {
-            this.serializedSettings = settings.save();
-        } else {
-            this.serializedSettings = null;
-        }
-        this.database = database;
-        this.table = table;
+        this(new Context(database, table, settings, queryPlan), beAddress, tabletIds);
+    }
+
+    public PartitionDefinition(Context context, String beAddress, Set<Long> tabletIds) {
+        this(context, null, beAddress, encodeTabletIds(tabletIds));
+    }
+
+    private PartitionDefinition(Context context, Broadcast<Context> broadcastContext,
+                                String beAddress, byte[] encodedTabletIds) {
+        this.context = context;
+        this.broadcastContext = broadcastContext;
         this.beAddress = beAddress;
-        this.tabletIds = tabletIds;
-        this.queryPlan = queryPlan;
+        this.encodedTabletIds = encodedTabletIds;
+    }
+
+    /**
+     * Broadcast the contexts of the partitions, each of which is shared by a group of partitions,
+     * so that it's sent to each executor once instead of with each task.
+     *
+     * @param sc         the active {@link SparkContext}
+     * @param partitions partitions to broadcast
+     * @return partitions referring to the broadcast contexts
+     */
+    public static List<PartitionDefinition> broadcastContext(SparkContext sc, List<PartitionDefinition> partitions) {
+        if (partitions.size() <= 1) {
+            return partitions;
+        }
+        JavaSparkContext jsc = JavaSparkContext.fromSparkContext(sc);
+        Map<Context, Broadcast<Context>> broadcasts = new IdentityHashMap<>();
+        List<PartitionDefinition> broadcastPartitions = new ArrayList<>(partitions.size());
+        for (PartitionDefinition partition : partitions) {
+            if (partition.context == null) {
+                broadcastPartitions.add(partition);
+                continue;
+            }
+            Broadcast<Context> broadcast = broadcasts.computeIfAbsent(partition.context, jsc::broadcast);
+            broadcastPartitions.add(
+                    new PartitionDefinition(null, broadcast, partition.beAddress, partition.encodedTabletIds));
+        }
+        return broadcastPartitions;
+    }
+
+    /**
+     * Remove the copies of the broadcast contexts of the partitions from the executors, when the
+     * partitions are replaced by those planned again. The contexts are still kept on the driver.
+     *
+     * @param partitions partitions which are replaced
+     */
+    public static void unpersistContext(List<PartitionDefinition> partitions) {
+        Set<Broadcast<Context>> broadcasts = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PartitionDefinition partition : partitions) {
+            if (partition.broadcastContext != null && broadcasts.add(partition.broadcastContext)) {
+                partition.broadcastContext.unpersist(false);
+            }
+        }
+    }
+
+    private Context context() {
+        return context != null ? context : broadcastContext.value();
     }
 
     public String getBeAddress() {
@@ -61,32 +129,82 @@ public class PartitionDefinition implements Serializable, Comparable<PartitionDe
     }
 
     public Set<Long> getTabletIds() {
+        if (tabletIds == null) {
+            tabletIds = decodeTabletIds(encodedTabletIds);
+        }
         return tabletIds;
     }
 
     public String getDatabase() {
-        return database;
+        return context().database;
     }
 
     public String getTable() {
-        return table;
+        return context().table;
     }
 
     public String getQueryPlan() {
-        return queryPlan;
+        return context().queryPlan;
     }
 
     public Settings settings() throws IllegalArgumentException {
-        PropertiesSettings settings = new PropertiesSettings();
-        return serializedSettings != null ? settings.load(serializedSettings) : settings;
+        return context().settings();
+    }
+
+    // The ids are sorted, so the differences are small and mostly take a byte or two
+    @VisibleForTesting
+    static byte[] encodeTabletIds(Set<Long> tabletIds) {
+        long[] ids = tabletIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.length * 2 + 1);
+        writeVarLong(out, ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            writeVarLong(out, id - previous);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    @VisibleForTesting
+    static Set<Long> decodeTabletIds(byte[] encoded) {
+        int[] position = {0};
+        int count = (int) readVarLong(encoded, position);
+        Set<Long> ids = new LinkedHashSet<>(count * 2);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += readVarLong(encoded, position);
+            ids.add(previous);
+        }
+        return ids;
+    }
+
+    // unsigned, so that the overflowing differences are restored by the overflowing additions
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] encoded, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = encoded[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
     }
 
     public int compareTo(PartitionDefinition o) {
-        int cmp = database.compareTo(o.database);
+        int cmp = getDatabase().compareTo(o.getDatabase());
         if (cmp != 0) {
             return cmp;
         }
-        cmp = table.compareTo(o.table);
+        cmp = getTable().compareTo(o.getTable());
         if (cmp != 0) {
             return cmp;
         }
@@ -94,20 +212,20 @@ public class PartitionDefinition implements Serializable, Comparable<PartitionDe
         if (cmp != 0) {
             return cmp;
         }
-        cmp = queryPlan.compareTo(o.queryPlan);
+        cmp = getQueryPlan().compareTo(o.getQueryPlan());
         if (cmp != 0) {
             return cmp;
         }
 
-        cmp = tabletIds.size() - o.tabletIds.size();
+        cmp = getTabletIds().size() - o.getTabletIds().size();
         if (cmp != 0) {
             return cmp;
         }
 
-        Set<Long> similar = new HashSet<>(tabletIds);
-        Set<Long> diffSelf = new HashSet<>(tabletIds);
-        Set<Long> diffOther = new HashSet<>(o.tabletIds);
-        similar.retainAll(o.tabletIds);
+        Set<Long> similar = new HashSet<>(getTabletIds());
+        Set<Long> diffSelf = new HashSet<>(getTabletIds());
+        Set<Long> diffOther = new HashSet<>(o.getTabletIds());
+        similar.retainAll(o.getTabletIds());
         diffSelf.removeAll(similar);
         diffOther.removeAll(similar);
         if (diffSelf.size() == 0) {
@@ -126,32 +244,90 @@ public class PartitionDefinition implements Serializable, Comparable<PartitionDe
             return false;
         }
         PartitionDefinition that = (PartitionDefinition) o;
-        return Objects.equals(database, that.database) &&
-                Objects.equals(table, that.table) &&
-                Objects.equals(beAddress, that.beAddress) &&
-                Objects.equals(tabletIds, that.tabletIds) &&
-                Objects.equals(queryPlan, that.queryPlan) &&
-                Objects.equals(serializedSettings, that.serializedSettings);
+        return Objects.equals(beAddress, that.beAddress) &&
+                Arrays.equals(encodedTabletIds, that.encodedTabletIds) &&
+                Objects.equals(context(), that.context());
     }
 
     @Override
     public int hashCode() {
-        int result = database.hashCode();
-        result = 31 * result + table.hashCode();
+        int result = getDatabase().hashCode();
+        result = 31 * result + getTable().hashCode();
         result = 31 * result + beAddress.hashCode();
-        result = 31 * result + queryPlan.hashCode();
-        result = 31 * result + tabletIds.hashCode();
+        result = 31 * result + getQueryPlan().hashCode();
+        result = 31 * result + getTabletIds().hashCode();
         return result;
     }
 
     @Override
     public String toString() {
         return "PartitionDefinition{" +
-                ", database='" + database + '\'' +
-                ", table='" + table + '\'' +
+                ", database='" + getDatabase() + '\'' +
+                ", table='" + getTable() + '\'' +
                 ", beAddress='" + beAddress + '\'' +
-                ", tabletIds=" + tabletIds +
-                ", queryPlan='" + queryPlan + '\'' +
+                ", tabletIds=" + getTabletIds() +
+                ", queryPlan='" + getQueryPlan() + '\'' +
                 '}';
     }
+
+    /**
+     * The table, settings and query plan shared by the partitions planned together. Only the
+     * settings of the connector are kept, rather than the whole Spark configuration.
+     */
+    public static class Context implements Serializable {
+        private final String database;
+        private final String table;
+        private final String serializedSettings;
+        private final String queryPlan;
+
+        // settings parsed once for the tasks sharing the context in an executor
+        private transient volatile Settings settings;
+
+        public Context(String database, String table, Settings settings, String queryPlan)
+                throws IllegalArgumentException {
+            this.database = database;
+            this.table = table;
+            this.serializedSettings = settings != null ? connectorSettings(settings).save() : null;
+            this.queryPlan = queryPlan;
+        }
+
+        private static Settings connectorSettings(Settings settings) {
+            Properties properties = new Properties();
+            for (Map.Entry<String, String> entry : settings.getPropertyMap().entrySet()) {
+                if (entry.getKey().startsWith(SETTINGS_PREFIX)) {
+                    properties.setProperty(entry.getKey(), entry.getValue());
+                }
+            }
+            return new PropertiesSettings(properties);
+        }
+
+        Settings settings() throws IllegalArgumentException {
+            if (settings == null) {
+                PropertiesSettings loaded = new PropertiesSettings();
+                settings = serializedSettings != null ? loaded.load(serializedSettings) : loaded;
+            }
+            // a copy, so that the changes of a task are not seen by the other tasks
+            return settings.copy();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Context that = (Context) o;
+            return Objects.equals(database, that.database) &&
+                    Objects.equals(table, that.table) &&
+                    Objects.equals(serializedSettings, that.serializedSettings) &&
+                    Objects.equals(queryPlan, that.queryPlan);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(database, table, queryPlan);
+        }
+    }
 }
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.starrocks.connector.spark.cfg.ConfigurationOptions;
 import com.starrocks.connector.spark.cfg.Settings;
 import com.starrocks.connector.spark.exception.ConnectedFailedException;
@@ -36,6 +37,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthenticationException;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.RedirectStrategy;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -45,12 +47,15 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -60,12 +65,29 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FENODES;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_MAX_COUNT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_MAX_COUNT_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_TARGET_BYTES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_TARGET_ROWS;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_AUTH_PASSWORD;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_AUTH_USER;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_LOCALITY_ENABLED;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_LOCALITY_ENABLED_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_PLANNING_THREADS;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_PLANNING_THREADS_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_ROWS_ESTIMATE;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_SIZE;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_SIZE_DEFAULT;
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_SIZE_MIN;
@@ -84,6 +106,8 @@ public class RestService implements Serializable {
     private static final String SCHEMA = "_schema";
     private static final String QUERY_PLAN = "_query_plan";
 
+    private static ExecutorService planningExecutor;
+
     /**
      * send request to StarRocks FE and get response json string.
      *
@@ -95,12 +119,29 @@ public class RestService implements Serializable {
      */
     private static String send(Settings cfg, HttpRequestBase request, Logger logger) throws
             ConnectedFailedException {
+        int retries = cfg.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_RETRIES,
+                ConfigurationOptions.STARROCKS_REQUEST_RETRIES_DEFAULT);
+        return send(cfg, request, retries, DefaultRedirectStrategy.INSTANCE, logger);
+    }
+
+    /**
+     * send request to StarRocks FE in the attempts, each of which is sent to another FE if the
+     * last one has failed, and get response json string.
+     *
+     * @param cfg              configuration of request
+     * @param request          {@link HttpRequestBase} real request
+     * @param retries          number of the attempts
+     * @param redirectStrategy {@link RedirectStrategy} to follow the redirects of the response
+     * @param logger           {@link Logger}
+     * @return StarRocks FE response in json string
+     * @throws ConnectedFailedException throw when cannot connect to StarRocks FE
+     */
+    private static String send(Settings cfg, HttpRequestBase request, int retries,
+                               RedirectStrategy redirectStrategy, Logger logger) throws ConnectedFailedException {
         int connectTimeout = cfg.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_CONNECT_TIMEOUT_MS,
                 ConfigurationOptions.STARROCKS_REQUEST_CONNECT_TIMEOUT_MS_DEFAULT);
         int socketTimeout = cfg.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_READ_TIMEOUT_MS,
                 ConfigurationOptions.STARROCKS_REQUEST_READ_TIMEOUT_MS_DEFAULT);
-        int retries = cfg.getIntegerProperty(ConfigurationOptions.STARROCKS_REQUEST_RETRIES,
-                ConfigurationOptions.STARROCKS_REQUEST_RETRIES_DEFAULT);
         logger.trace("connect timeout set to '{}'. socket timeout set to '{}'. retries set to '{}'.",
                 connectTimeout, socketTimeout, retries);
 
@@ -128,11 +169,20 @@ public class RestService implements Serializable {
         int statusCode = -1;
 
         for (int attempt = 0; attempt < retries; attempt++) {
-            CloseableHttpClient httpClient = HttpClients.createDefault();
+            if (attempt > 0) {
+                switchEndpoint(cfg, request, logger);
+            }
             logger.debug("Attempt {} to request {}.", attempt, request.getURI());
-            try {
-                CloseableHttpResponse response = httpClient.execute(request, context);
+            String endpoint = request.getURI().getRawAuthority();
+            long start = System.currentTimeMillis();
+            try (CloseableHttpClient httpClient = HttpClients.custom().setRedirectStrategy(redirectStrategy).build();
+                 CloseableHttpResponse response = httpClient.execute(request, context)) {
                 statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+                    FrontendSelector.recordFailure(endpoint);
+                } else {
+                    FrontendSelector.recordLatency(endpoint, System.currentTimeMillis() - start);
+                }
                 if (statusCode != HttpStatus.SC_OK) {
                     logger.warn("Failed to get response from StarRocks FE {}, http code is {}",
                             request.getURI(), statusCode);
@@ -144,6 +194,7 @@ public class RestService implements Serializable {
                 return res;
             } catch (IOException e) {
                 ex = e;
+                FrontendSelector.recordFailure(endpoint);
                 logger.warn(CONNECT_FAILED_MESSAGE, request.getURI(), e);
             }
         }
@@ -152,6 +203,67 @@ public class RestService implements Serializable {
         throw new ConnectedFailedException(request.getURI().toString(), statusCode, ex);
     }
 
+    /**
+     * send request to the path of a StarRocks FE in starrocks.fenodes, which is retried on
+     * another FE if it fails, and get response json string.
+     *
+     * @param cfg     configuration of request
+     * @param scheme  scheme of the FE http address, such as http or https
+     * @param request {@link HttpRequestBase} real request, whose URI is set to the chosen FE
+     * @param path    path of the request on StarRocks FE, with the query string if any
+     * @param logger  {@link Logger}
+     * @return StarRocks FE response in json string
+     * @throws StarrocksException throw when fenodes is illegal or cannot connect to StarRocks FE
+     */
+    public static String sendToFrontend(Settings cfg, String scheme, HttpRequestBase request, String path,
+                                        Logger logger) throws StarrocksException {
+        setFrontendUri(cfg, scheme, request, path, logger);
+        return send(cfg, request, logger);
+    }
+
+    /**
+     * send a request of transaction, such as to commit or roll back, to the path of a StarRocks
+     * FE in starrocks.fenodes, and get response json string. It's sent only once since it's not
+     * idempotent, and the redirect of FE to BE is followed with the same method and headers.
+     *
+     * @param cfg     configuration of request
+     * @param scheme  scheme of the FE http address, such as http or https
+     * @param request {@link HttpRequestBase} real request, whose URI is set to the chosen FE
+     * @param path    path of the request on StarRocks FE
+     * @param logger  {@link Logger}
+     * @return StarRocks FE response in json string
+     * @throws StarrocksException throw when fenodes is illegal or cannot connect to StarRocks FE
+     */
+    public static String sendTransaction(Settings cfg, String scheme, HttpRequestBase request, String path,
+                                         Logger logger) throws StarrocksException {
+        setFrontendUri(cfg, scheme, request, path, logger);
+        return send(cfg, request, 1, LaxRedirectStrategy.INSTANCE, logger);
+    }
+
+    private static void setFrontendUri(Settings cfg, String scheme, HttpRequestBase request, String path,
+                                       Logger logger) {
+        String endpoint = FrontendSelector.choose(parseEndpoints(cfg.getProperty(STARROCKS_FENODES), logger));
+        request.setURI(URI.create(scheme + "://" + endpoint + path));
+    }
+
+    /**
+     * request another StarRocks FE if the last one has failed and there are other ones.
+     */
+    private static void switchEndpoint(Settings cfg, HttpRequestBase request, Logger logger) {
+        URI uri = request.getURI();
+        String endpoint;
+        try {
+            endpoint = FrontendSelector.choose(parseEndpoints(cfg.getProperty(STARROCKS_FENODES), logger));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        if (!endpoint.equals(uri.getRawAuthority())) {
+            request.setURI(URI.create(uri.getScheme() + "://" + endpoint + uri.getRawPath()
+                    + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery())));
+            logger.info("Switch the request from StarRocks FE {} to {}.", uri.getRawAuthority(), endpoint);
+        }
+    }
+
     /**
      * parse table identifier to array.
      *
@@ -185,18 +297,32 @@ public class RestService implements Serializable {
      */
     @VisibleForTesting
     static String randomEndpoint(String feNodes, Logger logger) throws IllegalArgumentException {
+        List<String> nodes = parseEndpoints(feNodes, logger);
+        Collections.shuffle(nodes);
+        return nodes.get(0);
+    }
+
+    /**
+     * parse StarRocks FE nodes.
+     *
+     * @param feNodes StarRocks FE node list, separate be comma
+     * @param logger  slf4j logger
+     * @return StarRocks FE nodes
+     * @throws IllegalArgumentException fe nodes is illegal
+     */
+    private static List<String> parseEndpoints(String feNodes, Logger logger) throws IllegalArgumentException {
         logger.trace("Parse fenodes '{}'.", feNodes);
         if (StringUtils.isEmpty(feNodes)) {
             logger.error(ILLEGAL_ARGUMENT_MESSAGE, "fenodes", feNodes);
             throw new IllegalArgumentException("fenodes", feNodes);
         }
-        List<String> nodes = Arrays.asList(feNodes.split(","));
-        Collections.shuffle(nodes);
-        return nodes.get(0).trim();
+        return Arrays.stream(feNodes.split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
     }
 
     /**
-     * get a valid URI to connect StarRocks FE.
+     * get a valid URI to connect StarRocks FE, which is on the fastest healthy FE.
      *
      * @param cfg    configuration of request
      * @param logger {@link Logger}
@@ -206,8 +332,9 @@ public class RestService implements Serializable {
     @VisibleForTesting
     static String getUriStr(Settings cfg, Logger logger) throws IllegalArgumentException {
         String[] identifier = parseIdentifier(cfg.getProperty(STARROCKS_TABLE_IDENTIFIER), logger);
+        String endpoint = FrontendSelector.choose(parseEndpoints(cfg.getProperty(STARROCKS_FENODES), logger));
         return "http://" +
-                randomEndpoint(cfg.getProperty(STARROCKS_FENODES), logger) + API_PREFIX +
+                endpoint + API_PREFIX +
                 "/" + identifier[0] +
                 "/" + identifier[1] +
                 "/";
@@ -282,6 +409,112 @@ public class RestService implements Serializable {
      * @throws StarrocksException throw when find partition failed
      */
     public static List<PartitionDefinition> findPartitions(Settings cfg, Logger logger) throws StarrocksException {
+        return findPartitions(cfg, requestQueryPlan(cfg, logger), logger);
+    }
+
+    /**
+     * find StarRocks RDD partitions of a query plan requested before.
+     *
+     * @param cfg       configuration of request
+     * @param queryPlan {@link QueryPlan} of the configuration
+     * @param logger    {@link Logger}
+     * @return an list of StarRocks RDD partitions
+     * @throws StarrocksException throw when find partition failed
+     */
+    public static List<PartitionDefinition> findPartitions(Settings cfg, QueryPlan queryPlan, Logger logger)
+            throws StarrocksException {
+        String[] tableIdentifiers = parseIdentifier(cfg.getProperty(STARROCKS_TABLE_IDENTIFIER), logger);
+        Map<String, List<Long>> be2Tablets;
+        if (Boolean.parseBoolean(cfg.getProperty(STARROCKS_REQUEST_LOCALITY_ENABLED,
+                String.valueOf(STARROCKS_REQUEST_LOCALITY_ENABLED_DEFAULT)))) {
+            Set<String> executorHosts = BackendLocality.liveExecutorHosts();
+            Map<String, String> hostMapping = BackendLocality.parseHostMapping(cfg);
+            logger.debug("Prefer StarRocks BE on the hosts of executors {}.", executorHosts);
+            be2Tablets = selectBeForTablet(queryPlan,
+                    be -> executorHosts.contains(BackendLocality.executorHost(be, hostMapping)), logger);
+        } else {
+            be2Tablets = selectBeForTablet(queryPlan, logger);
+        }
+        return tabletsMapToPartition(
+                cfg,
+                be2Tablets,
+                queryPlan.getOpaqued_query_plan(),
+                tableIdentifiers[0],
+                tableIdentifiers[1],
+                logger);
+    }
+
+    /**
+     * request the query plan from StarRocks FE in the thread pool of planning.
+     *
+     * @param cfg    configuration of request
+     * @param logger {@link Logger}
+     * @return future of inner {@link QueryPlan} struct
+     */
+    public static CompletableFuture<QueryPlan> requestQueryPlanAsync(Settings cfg, Logger logger) {
+        Settings settings = cfg.copy();
+        return supplyAsync(settings, () -> requestQueryPlan(settings, logger));
+    }
+
+    /**
+     * wait for the result of a request in the thread pool of planning.
+     *
+     * @param future future of the request
+     * @return result of the request
+     * @throws StarrocksException throw when the request failed
+     */
+    public static <T> T await(CompletableFuture<T> future) throws StarrocksException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarrocksException("Interrupted while waiting for StarRocks FE", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof StarrocksException) {
+                throw (StarrocksException) cause;
+            }
+            throw new StarrocksException("Failed to request StarRocks FE", cause);
+        }
+    }
+
+    private interface Request<T> {
+        T call() throws StarrocksException;
+    }
+
+    private static <T> CompletableFuture<T> supplyAsync(Settings cfg, Request<T> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return request.call();
+            } catch (StarrocksException e) {
+                throw new CompletionException(e);
+            }
+        }, planningExecutor(cfg));
+    }
+
+    // The pool is shared by the planning in this JVM, and its size is set by the first request
+    private static synchronized ExecutorService planningExecutor(Settings cfg) {
+        if (planningExecutor == null) {
+            int threads = Math.max(1, cfg.getIntegerProperty(STARROCKS_REQUEST_PLANNING_THREADS,
+                    STARROCKS_REQUEST_PLANNING_THREADS_DEFAULT));
+            planningExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("starrocks-planning-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return planningExecutor;
+    }
+
+    /**
+     * request the query plan of the columns and the filter in the configuration from StarRocks FE,
+     * which contains the tablets to scan and their versions.
+     *
+     * @param cfg    configuration of request
+     * @param logger {@link Logger}
+     * @return inner {@link QueryPlan} struct
+     * @throws StarrocksException throw when request failed
+     */
+    public static QueryPlan requestQueryPlan(Settings cfg, Logger logger) throws StarrocksException {
         String[] tableIdentifiers = parseIdentifier(cfg.getProperty(STARROCKS_TABLE_IDENTIFIER), logger);
         String sql = "select " + cfg.getProperty(STARROCKS_READ_FIELD, "*") +
                 " from `" + tableIdentifiers[0] + "`.`" + tableIdentifiers[1] + "`";
@@ -300,15 +533,7 @@ public class RestService implements Serializable {
 
         String resStr = send(cfg, httpPost, logger);
         logger.debug("Find partition response is '{}'.", resStr);
-        QueryPlan queryPlan = getQueryPlan(resStr, logger);
-        Map<String, List<Long>> be2Tablets = selectBeForTablet(queryPlan, logger);
-        return tabletsMapToPartition(
-                cfg,
-                be2Tablets,
-                queryPlan.getOpaqued_query_plan(),
-                tableIdentifiers[0],
-                tableIdentifiers[1],
-                logger);
+        return getQueryPlan(resStr, logger);
     }
 
     /**
@@ -363,6 +588,22 @@ public class RestService implements Serializable {
      */
     @VisibleForTesting
     static Map<String, List<Long>> selectBeForTablet(QueryPlan queryPlan, Logger logger) throws StarrocksException {
+        return selectBeForTablet(queryPlan, be -> false, logger);
+    }
+
+    /**
+     * select which StarRocks BE to get tablet data, choosing from the preferred replicas of a
+     * tablet if there are any, such as those on the hosts of executors.
+     *
+     * @param queryPlan   {@link QueryPlan} translated from StarRocks FE response
+     * @param preferredBe whether a StarRocks BE is preferred
+     * @param logger      {@link Logger}
+     * @return BE to tablets {@link Map}
+     * @throws StarrocksException throw when translate failed
+     */
+    @VisibleForTesting
+    static Map<String, List<Long>> selectBeForTablet(QueryPlan queryPlan, Predicate<String> preferredBe,
+                                                     Logger logger) throws StarrocksException {
         Map<String, List<Long>> be2Tablets = new HashMap<>();
         for (Map.Entry<String, Tablet> part : queryPlan.getPartitions().entrySet()) {
             logger.debug("Parse tablet info: '{}'.", part);
@@ -374,9 +615,15 @@ public class RestService implements Serializable {
                 logger.error(errMsg, e);
                 throw new StarrocksException(errMsg, e);
             }
+            List<String> candidates = part.getValue().getRoutings().stream()
+                    .filter(preferredBe)
+                    .collect(Collectors.toList());
+            if (candidates.isEmpty()) {
+                candidates = part.getValue().getRoutings();
+            }
             String target = null;
             int tabletCount = Integer.MAX_VALUE;
-            for (String candidate : part.getValue().getRoutings()) {
+            for (String candidate : candidates) {
                 logger.trace("Evaluate StarRocks BE '{}' to tablet '{}'.", candidate, tabletId);
                 if (!be2Tablets.containsKey(candidate)) {
                     logger.debug("Choice a new StarRocks BE '{}' for tablet '{}'.", candidate, tabletId);
@@ -448,25 +695,106 @@ public class RestService implements Serializable {
                                                            String opaquedQueryPlan, String database, String table,
                                                            Logger logger)
             throws IllegalArgumentException {
-        int tabletsSize = tabletCountLimitForOnePartition(cfg, logger);
+        for (List<Long> tablets : be2Tablets.values()) {
+            HashSet<Long> tabletSet = new HashSet<>(tablets);
+            tablets.clear();
+            tablets.addAll(tabletSet);
+        }
+        int tabletsSize = tabletCountForOnePartition(cfg, be2Tablets, logger);
+        PartitionDefinition.Context context = new PartitionDefinition.Context(database, table, cfg, opaquedQueryPlan);
         List<PartitionDefinition> partitions = new ArrayList<>();
         for (Map.Entry<String, List<Long>> beInfo : be2Tablets.entrySet()) {
             logger.debug("Generate partition with beInfo: '{}'.", beInfo);
-            HashSet<Long> tabletSet = new HashSet<>(beInfo.getValue());
-            beInfo.getValue().clear();
-            beInfo.getValue().addAll(tabletSet);
             int first = 0;
             while (first < beInfo.getValue().size()) {
                 Set<Long> partitionTablets = new HashSet<>(beInfo.getValue().subList(
-                        first, Math.min(beInfo.getValue().size(), first + tabletsSize)));
-                first = first + tabletsSize;
+                        first, (int) Math.min(beInfo.getValue().size(), (long) first + tabletsSize)));
+                first = (int) Math.min(Integer.MAX_VALUE, (long) first + tabletsSize);
                 PartitionDefinition partitionDefinition =
-                        new PartitionDefinition(database, table, cfg,
-                                beInfo.getKey(), partitionTablets, opaquedQueryPlan);
+                        new PartitionDefinition(context, beInfo.getKey(), partitionTablets);
                 logger.debug("Generate one PartitionDefinition '{}'.", partitionDefinition);
                 partitions.add(partitionDefinition);
             }
         }
         return partitions;
     }
+
+    /**
+     * number of tablets of a BE in a partition. If the target bytes or rows of a partition is set
+     * and the size of a tablet is known, the tablets are packed until the target is reached instead
+     * of by starrocks.request.tablet.size, so that tiny tablets don't become tiny tasks. The number
+     * is then increased until there are no more than starrocks.request.partition.max.count
+     * partitions, or a partition for each BE.
+     *
+     * @param cfg        configuration of request
+     * @param be2Tablets BE to distinct tablets {@link Map}
+     * @param logger     {@link Logger}
+     * @return tablet count of a partition
+     */
+    @VisibleForTesting
+    static int tabletCountForOnePartition(Settings cfg, Map<String, List<Long>> be2Tablets, Logger logger) {
+        int tabletsSize = tabletCountLimitForOnePartition(cfg, logger);
+        long tabletsByTarget = Math.min(
+                tabletCountByTarget(cfg, STARROCKS_PARTITION_TARGET_BYTES, STARROCKS_TABLET_BYTES_ESTIMATE, logger),
+                tabletCountByTarget(cfg, STARROCKS_PARTITION_TARGET_ROWS, STARROCKS_TABLET_ROWS_ESTIMATE, logger));
+        if (tabletsByTarget != Long.MAX_VALUE) {
+            tabletsSize = (int) Math.min(Integer.MAX_VALUE, tabletsByTarget);
+            logger.debug("Tablet size is set to {} by the target of a partition.", tabletsSize);
+        }
+
+        int maxCount = cfg.getIntegerProperty(STARROCKS_PARTITION_MAX_COUNT, STARROCKS_PARTITION_MAX_COUNT_DEFAULT);
+        int maxTabletsOfBe = be2Tablets.values().stream().mapToInt(List::size).max().orElse(0);
+        if (maxCount <= 0 || tabletsSize >= maxTabletsOfBe || partitionCount(be2Tablets, tabletsSize) <= maxCount) {
+            return tabletsSize;
+        }
+        // the fewest tablets of a partition making no more partitions than the max count
+        int low = tabletsSize;
+        int high = maxTabletsOfBe;
+        while (low < high) {
+            int mid = low + (high - low) / 2;
+            if (partitionCount(be2Tablets, mid) <= maxCount) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        logger.info("Tablet size is increased from {} to {}, so that there are at most {} partitions of {} BE.",
+                tabletsSize, low, maxCount, be2Tablets.size());
+        return low;
+    }
+
+    private static long partitionCount(Map<String, List<Long>> be2Tablets, int tabletsSize) {
+        long count = 0;
+        for (List<Long> tablets : be2Tablets.values()) {
+            count += (tablets.size() + (long) tabletsSize - 1) / tabletsSize;
+        }
+        return count;
+    }
+
+    // tablets packed to reach the target, which is Long.MAX_VALUE if the target or the estimate is unknown
+    private static long tabletCountByTarget(Settings cfg, String targetKey, String estimateKey, Logger logger) {
+        long target = parseLongProperty(cfg, targetKey, logger);
+        long estimate = parseLongProperty(cfg, estimateKey, logger);
+        if (target <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (estimate <= 0) {
+            logger.warn("{} is ignored because {} is unknown.", targetKey, estimateKey);
+            return Long.MAX_VALUE;
+        }
+        return Math.max(1, target / estimate);
+    }
+
+    private static long parseLongProperty(Settings cfg, String key, Logger logger) {
+        String value = cfg.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn(PARSE_NUMBER_FAILED_MESSAGE, key, value);
+            return 0;
+        }
+    }
 }
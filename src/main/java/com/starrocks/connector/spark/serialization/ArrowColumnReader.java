@@ -0,0 +1,364 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.serialization;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.connector.spark.exception.StarrocksException;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.spark.sql.types.Decimal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+/**
+ * Read the values of an arrow column to the rows of {@link RowBatch}. A reader is created for
+ * each column by the StarRocks type of the column once, and reused for all batches of a scan,
+ * so the type isn't dispatched for each batch, and the loop over the rows of each reader only
+ * sees one type of vector.
+ */
+public abstract class ArrowColumnReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArrowColumnReader.class);
+
+    private final String type;
+    // the expected type of the arrow vector, and null if any type is accepted
+    private final Types.MinorType minorType;
+
+    ArrowColumnReader(String type, Types.MinorType minorType) {
+        this.type = type;
+        this.minorType = minorType;
+    }
+
+    public static ArrowColumnReader create(String type) throws StarrocksException {
+        switch (type) {
+            case "NULL_TYPE":
+                return new NullReader(type);
+            case "BOOLEAN":
+                return new BooleanReader(type);
+            case "TINYINT":
+                return new TinyIntReader(type);
+            case "SMALLINT":
+                return new SmallIntReader(type);
+            case "INT":
+                return new IntReader(type);
+            case "BIGINT":
+                return new BigIntReader(type);
+            case "FLOAT":
+                return new FloatReader(type);
+            case "TIME":
+            case "DOUBLE":
+                return new DoubleReader(type);
+            case "BINARY":
+                return new BinaryReader(type);
+            case "DECIMAL":
+                return new DecimalStringReader(type);
+            case "DECIMALV2":
+            case "DECIMAL32":
+            case "DECIMAL64":
+            case "DECIMAL128":
+                return new DecimalReader(type);
+            case "DATE":
+                return new DateReader(type);
+            case "DATETIME":
+                return new DateTimeReader(type);
+            case "LARGEINT":
+            case "CHAR":
+            case "VARCHAR":
+                return new StringReader(type);
+            default:
+                String errMsg = "Unsupported type " + type;
+                LOG.error(errMsg);
+                throw new StarrocksException(errMsg);
+        }
+    }
+
+    /**
+     * Append the values of the vector to the rows starting from the offset.
+     */
+    public void read(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) throws Exception {
+        if (minorType != null) {
+            Preconditions.checkArgument(vector.getMinorType().equals(minorType),
+                    typeMismatchMessage(type, vector.getMinorType()));
+        }
+        readValues(vector, rows, offset, rowCount);
+    }
+
+    protected abstract void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount)
+            throws Exception;
+
+    private static String typeMismatchMessage(final String sparkType, final Types.MinorType arrowType) {
+        final String messageTemplate = "Spark type is %1$s, but arrow type is %2$s.";
+        return String.format(messageTemplate, sparkType, arrowType.name());
+    }
+
+    private static final class NullReader extends ArrowColumnReader {
+        NullReader(String type) {
+            super(type, null);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                rows.get(offset + rowIndex).put(null);
+            }
+        }
+    }
+
+    private static final class BooleanReader extends ArrowColumnReader {
+        BooleanReader(String type) {
+            super(type, Types.MinorType.BIT);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            BitVector bitVector = (BitVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = bitVector.isNull(rowIndex) ? null : bitVector.get(rowIndex) != 0;
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class TinyIntReader extends ArrowColumnReader {
+        TinyIntReader(String type) {
+            super(type, Types.MinorType.TINYINT);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            TinyIntVector tinyIntVector = (TinyIntVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = tinyIntVector.isNull(rowIndex) ? null : tinyIntVector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class SmallIntReader extends ArrowColumnReader {
+        SmallIntReader(String type) {
+            super(type, Types.MinorType.SMALLINT);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            SmallIntVector smallIntVector = (SmallIntVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = smallIntVector.isNull(rowIndex) ? null : smallIntVector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class IntReader extends ArrowColumnReader {
+        IntReader(String type) {
+            super(type, Types.MinorType.INT);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            IntVector intVector = (IntVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = intVector.isNull(rowIndex) ? null : intVector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class BigIntReader extends ArrowColumnReader {
+        BigIntReader(String type) {
+            super(type, Types.MinorType.BIGINT);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            BigIntVector bigIntVector = (BigIntVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = bigIntVector.isNull(rowIndex) ? null : bigIntVector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class FloatReader extends ArrowColumnReader {
+        FloatReader(String type) {
+            super(type, Types.MinorType.FLOAT4);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            Float4Vector float4Vector = (Float4Vector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = float4Vector.isNull(rowIndex) ? null : float4Vector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class DoubleReader extends ArrowColumnReader {
+        DoubleReader(String type) {
+            super(type, Types.MinorType.FLOAT8);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            Float8Vector float8Vector = (Float8Vector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = float8Vector.isNull(rowIndex) ? null : float8Vector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class BinaryReader extends ArrowColumnReader {
+        BinaryReader(String type) {
+            super(type, Types.MinorType.VARBINARY);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            VarBinaryVector varBinaryVector = (VarBinaryVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = varBinaryVector.isNull(rowIndex) ? null : varBinaryVector.get(rowIndex);
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    // DECIMAL of old versions is returned as string
+    private static final class DecimalStringReader extends ArrowColumnReader {
+        DecimalStringReader(String type) {
+            super(type, Types.MinorType.VARCHAR);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount)
+                throws StarrocksException {
+            VarCharVector varCharVector = (VarCharVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (varCharVector.isNull(rowIndex)) {
+                    rows.get(offset + rowIndex).put(null);
+                    continue;
+                }
+                String decimalValue = new String(varCharVector.get(rowIndex));
+                Decimal decimal = new Decimal();
+                try {
+                    decimal.set(new scala.math.BigDecimal(new BigDecimal(decimalValue)));
+                } catch (NumberFormatException e) {
+                    String errMsg = "Decimal response result '" + decimalValue + "' is illegal.";
+                    LOG.error(errMsg, e);
+                    throw new StarrocksException(errMsg);
+                }
+                rows.get(offset + rowIndex).put(decimal);
+            }
+        }
+    }
+
+    private static final class DecimalReader extends ArrowColumnReader {
+        DecimalReader(String type) {
+            super(type, Types.MinorType.DECIMAL);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            DecimalVector decimalVector = (DecimalVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = decimalVector.isNull(rowIndex)
+                        ? null : Decimal.apply(decimalVector.getObject(rowIndex));
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+
+    private static final class DateReader extends ArrowColumnReader {
+        private final SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd");
+
+        DateReader(String type) {
+            super(type, Types.MinorType.VARCHAR);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount)
+                throws ParseException {
+            VarCharVector varCharVector = (VarCharVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (varCharVector.isNull(rowIndex)) {
+                    rows.get(offset + rowIndex).put(null);
+                    continue;
+                }
+                String value = new String(varCharVector.get(rowIndex));
+                rows.get(offset + rowIndex).put(new Date(dateFormatter.parse(value).getTime()));
+            }
+        }
+    }
+
+    private static final class DateTimeReader extends ArrowColumnReader {
+        private final SimpleDateFormat dateTimeFormatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        DateTimeReader(String type) {
+            super(type, Types.MinorType.VARCHAR);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount)
+                throws ParseException {
+            VarCharVector varCharVector = (VarCharVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (varCharVector.isNull(rowIndex)) {
+                    rows.get(offset + rowIndex).put(null);
+                    continue;
+                }
+                String value = new String(varCharVector.get(rowIndex));
+                rows.get(offset + rowIndex).put(new Timestamp(dateTimeFormatter.parse(value).getTime()));
+            }
+        }
+    }
+
+    private static final class StringReader extends ArrowColumnReader {
+        StringReader(String type) {
+            super(type, Types.MinorType.VARCHAR);
+        }
+
+        @Override
+        protected void readValues(FieldVector vector, List<RowBatch.Row> rows, int offset, int rowCount) {
+            VarCharVector varCharVector = (VarCharVector) vector;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                Object fieldValue = varCharVector.isNull(rowIndex) ? null : new String(varCharVector.get(rowIndex));
+                rows.get(offset + rowIndex).put(fieldValue);
+            }
+        }
+    }
+}
@@ -19,29 +19,47 @@
 
 package com.starrocks.connector.spark.sql;
 
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
 import com.starrocks.connector.spark.sql.conf.StarRocksConfig;
 import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.connector.spark.sql.read.StarRocksScanBuilder;
 import com.starrocks.connector.spark.sql.write.StarRocksWriteBuilder;
+import org.apache.spark.sql.connector.catalog.SupportsRead;
 import org.apache.spark.sql.connector.catalog.SupportsWrite;
 import org.apache.spark.sql.connector.catalog.Table;
 import org.apache.spark.sql.connector.catalog.TableCapability;
 import org.apache.spark.sql.connector.expressions.Transform;
+import org.apache.spark.sql.connector.read.ScanBuilder;
 import org.apache.spark.sql.connector.write.LogicalWriteInfo;
 import org.apache.spark.sql.connector.write.WriteBuilder;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-public class StarRocksTable implements Table, SupportsWrite {
+public class StarRocksTable implements Table, SupportsRead, SupportsWrite {
 
     private static final Set<TableCapability> TABLE_CAPABILITY_SET = Collections.unmodifiableSet(
             new HashSet<>(
                     Arrays.asList(
                             TableCapability.BATCH_WRITE,
-                            TableCapability.STREAMING_WRITE
+                            TableCapability.STREAMING_WRITE,
+                            TableCapability.MICRO_BATCH_READ
+                    )
+            )
+    );
+
+    // Spark falls back to the V1 read if the table doesn't support BATCH_READ
+    private static final Set<TableCapability> TABLE_CAPABILITY_SET_WITH_READ = Collections.unmodifiableSet(
+            new HashSet<>(
+                    Arrays.asList(
+                            TableCapability.BATCH_READ,
+                            TableCapability.BATCH_WRITE,
+                            TableCapability.STREAMING_WRITE,
+                            TableCapability.MICRO_BATCH_READ
                     )
             )
     );
@@ -54,6 +72,13 @@ public class StarRocksTable implements Table, SupportsWrite {
         this.config = config;
     }
 
+    @Override
+    public ScanBuilder newScanBuilder(CaseInsensitiveStringMap options) {
+        ReadStarRocksConfig readConfig = new ReadStarRocksConfig(config.getOriginOptions());
+        return new StarRocksScanBuilder(
+                schema, readConfig, options.get(StarRocksScanBuilder.PUSHED_EXPRESSIONS_OPTION));
+    }
+
     @Override
     public WriteBuilder newWriteBuilder(LogicalWriteInfo info) {
         WriteStarRocksConfig writeConfig = new WriteStarRocksConfig(config.getOriginOptions());
@@ -72,6 +97,9 @@ public class StarRocksTable implements Table, SupportsWrite {
 
     @Override
     public Set<TableCapability> capabilities() {
+        if (new ReadStarRocksConfig(config.getOriginOptions()).isEnableDataSourceV2()) {
+            return TABLE_CAPABILITY_SET_WITH_READ;
+        }
         return TABLE_CAPABILITY_SET;
     }
 }
@@ -20,12 +20,68 @@
 package com.starrocks.connector.spark.sql.conf;
 
 import java.util.Map;
+import javax.annotation.Nullable;
 
 public class ReadStarRocksConfig extends StarRocksConfigBase {
 
     private static final long serialVersionUID = 1L;
 
+    public static final String READ_PREFIX = PREFIX + "read.";
+    // Whether to read with the Spark DataSource V2 API. The V1 API is used by default
+    private static final String KEY_ENABLE_DATASOURCE_V2 = READ_PREFIX + "datasource.v2.enabled";
+    // Whether to report the hash distribution of the table to Spark, so that aggregations
+    // on the distribution columns don't shuffle. Only tables without partitions are reported,
+    // and only on Spark 3.2. It doesn't avoid the shuffle of joins on any Spark version
+    private static final String KEY_ENABLE_REPORT_PARTITIONING = READ_PREFIX + "report-partitioning.enabled";
+    // Whether to request the query plan when the scan is created, so that the scans of several
+    // tables in a query are planned by StarRocks FE at the same time
+    private static final String KEY_ENABLE_PLAN_PREFETCH = READ_PREFIX + "plan-prefetch.enabled";
+    // The column whose values increase with the loads, such as an auto increment id or the load
+    // time, by which a streaming read finds the rows loaded since the last micro-batch
+    private static final String KEY_STREAM_INCREMENTAL_COLUMN = READ_PREFIX + "stream.incremental-column";
+    // The value of the incremental column after which a new streaming read starts
+    private static final String KEY_STREAM_START_VALUE = READ_PREFIX + "stream.start-value";
+
+    private boolean enableDataSourceV2 = false;
+    private boolean enableReportPartitioning = false;
+    private boolean enablePlanPrefetch = false;
+    private String streamIncrementalColumn;
+    private String streamStartValue;
+
     public ReadStarRocksConfig(Map<String, String> options) {
         super(options);
+        load();
+    }
+
+    private void load() {
+        enableDataSourceV2 = getBoolean(KEY_ENABLE_DATASOURCE_V2, false);
+        enableReportPartitioning = getBoolean(KEY_ENABLE_REPORT_PARTITIONING, false);
+        enablePlanPrefetch = getBoolean(KEY_ENABLE_PLAN_PREFETCH, false);
+        streamIncrementalColumn = get(KEY_STREAM_INCREMENTAL_COLUMN);
+        streamStartValue = get(KEY_STREAM_START_VALUE);
+    }
+
+    public boolean isEnableDataSourceV2() {
+        return enableDataSourceV2;
+    }
+
+    public boolean isEnableReportPartitioning() {
+        return enableReportPartitioning;
+    }
+
+    public boolean isEnablePlanPrefetch() {
+        return enablePlanPrefetch;
+    }
+
+    public String getStreamIncrementalColumn() {
+        if (streamIncrementalColumn == null) {
+            throw new RuntimeException(KEY_STREAM_INCREMENTAL_COLUMN + " must be set for the streaming read");
+        }
+        return streamIncrementalColumn;
+    }
+
+    @Nullable
+    public String getStreamStartValue() {
+        return streamStartValue;
     }
 }
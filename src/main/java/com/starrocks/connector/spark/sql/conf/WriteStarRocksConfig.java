@@ -51,6 +51,38 @@ public class WriteStarRocksConfig extends StarRocksConfigBase {
     private static final String KEY_FLUSH_INTERVAL = WRITE_PREFIX + "flush.interval.ms";
     private static final String KEY_MAX_RETIES = WRITE_PREFIX + "max.retries";
     private static final String KEY_RETRY_INTERVAL_MS = WRITE_PREFIX + "retry.interval.ms";
+    // Number of concurrent stream loads for a write task. Each of them loads a part of
+    // the task's rows in its own transaction, so converting rows and sending data can
+    // overlap. Note that the order of rows is not kept across these loads, so don't use
+    // it if the same key may be updated several times in a task for a primary key table
+    private static final String KEY_IO_THREAD_COUNT = WRITE_PREFIX + "io.thread.count";
+    // Whether the write tasks running concurrently in an executor share one stream load
+    // manager. The buffer size then limits the memory of all of these tasks, and their
+    // rows are loaded in the same transactions. Rows of an aborted task can't be rolled
+    // back in this mode, so the write is at-least-once and a retried task loads its rows again.
+    // Only supported for a primary key table
+    private static final String KEY_ENABLE_SHARED_LOAD_MANAGER = WRITE_PREFIX + "enable.shared-load-manager";
+    // Whether to commit the transactions on the driver. Tasks only prepare their transactions,
+    // and the driver commits all of them after all tasks succeed, or rolls back them if the
+    // write fails. The transactions are committed one by one, so a failed commit leaves those
+    // committed before it visible. Requires transaction stream load. A prepared transaction stays
+    // open until the whole write finishes, and StarRocks aborts it after the FE configuration
+    // prepared_transaction_default_timeout_second, 86400 by default, which must be longer
+    // than a batch write or an epoch of a streaming query, otherwise the driver fails to commit
+    private static final String KEY_ENABLE_TWO_PHASE_COMMIT = WRITE_PREFIX + "enable.two-phase-commit";
+    // Directory to record the labels committed for each epoch of a streaming query, which
+    // is used to skip the epochs replayed after the driver restarts. Defaults to a directory
+    // under the checkpoint location of the query, or under spark.sql.streaming.checkpointLocation.
+    // A streaming query with two-phase commit fails to start if there is none of them
+    private static final String KEY_EPOCH_LOG_DIR = WRITE_PREFIX + "epoch.log.dir";
+    private static final String KEY_CHECKPOINT_LOCATION = "checkpointLocation";
+    // Whether to tune the size of data flushed by a write task according to the latency of
+    // stream load. The size is between the min size and the buffer size, and shrinks when
+    // the loads are slower than the target latency, or grows when they are fast. A task waits
+    // for its loads to finish when it flushes, instead of writing while they run in the background
+    private static final String KEY_ENABLE_ADAPTIVE_FLUSH = WRITE_PREFIX + "enable.adaptive-flush";
+    private static final String KEY_ADAPTIVE_FLUSH_MIN_SIZE = WRITE_PREFIX + "adaptive-flush.min-size";
+    private static final String KEY_ADAPTIVE_FLUSH_TARGET_LATENCY = WRITE_PREFIX + "adaptive-flush.target-latency.ms";
     private static final String PROPS_PREFIX = WRITE_PREFIX + "properties.";
     private static final String KEY_PROPS_FORMAT = PROPS_PREFIX + "format";
     private static final String KEY_PROPS_ROW_DELIMITER = PROPS_PREFIX + "row_delimiter";
@@ -61,8 +93,13 @@ public class WriteStarRocksConfig extends StarRocksConfigBase {
 
     private String labelPrefix = "spark-";
     private int waitForContinueTimeoutMs = 30000;
-    // Only support to write to one table, and one thread is enough
     private int ioThreadCount = 1;
+    private boolean enableSharedLoadManager = false;
+    private boolean enableTwoPhaseCommit = false;
+    private String epochLogDir;
+    private boolean enableAdaptiveFlush = false;
+    private long adaptiveFlushMinSize = 8388608;
+    private int adaptiveFlushTargetLatencyMs = 10000;
     private long chunkLimit = 3221225472L;
     private int scanFrequencyInMs = 50;
     private boolean enableTransactionStreamLoad = true;
@@ -97,6 +134,14 @@ public class WriteStarRocksConfig extends StarRocksConfigBase {
         flushInterval = getInt(KEY_FLUSH_INTERVAL, 300000);
         maxRetries = getInt(KEY_MAX_RETIES, 3);
         retryIntervalInMs = getInt(KEY_RETRY_INTERVAL_MS, 10000);
+        ioThreadCount = getInt(KEY_IO_THREAD_COUNT, 1);
+        if (ioThreadCount < 1) {
+            throw new RuntimeException(KEY_IO_THREAD_COUNT + " should be positive, but is " + ioThreadCount);
+        }
+        enableSharedLoadManager = getBoolean(KEY_ENABLE_SHARED_LOAD_MANAGER, false);
+        enableAdaptiveFlush = getBoolean(KEY_ENABLE_ADAPTIVE_FLUSH, false);
+        adaptiveFlushMinSize = Utils.byteStringAsBytes(get(KEY_ADAPTIVE_FLUSH_MIN_SIZE, "8m"));
+        adaptiveFlushTargetLatencyMs = getInt(KEY_ADAPTIVE_FLUSH_TARGET_LATENCY, 10000);
 
         properties = originOptions.entrySet().stream()
                 .filter(entry -> entry.getKey().startsWith(PROPS_PREFIX))
@@ -127,6 +172,23 @@ public class WriteStarRocksConfig extends StarRocksConfigBase {
         partitionColumns = getArray(KEY_PARTITION_COLUMNS, null);
         supportTransactionStreamLoad = StreamLoadUtils.isStarRocksSupportTransactionLoad(
                 Arrays.asList(getFeHttpUrls()), getHttpRequestConnectTimeoutMs(), getUsername(), getPassword());
+
+        enableTwoPhaseCommit = getBoolean(KEY_ENABLE_TWO_PHASE_COMMIT, false);
+        if (enableTwoPhaseCommit && !(enableTransactionStreamLoad && supportTransactionStreamLoad)) {
+            throw new RuntimeException(KEY_ENABLE_TWO_PHASE_COMMIT + " requires transaction stream load, " +
+                    "but it's disabled or not supported by StarRocks");
+        }
+        if (enableTwoPhaseCommit && enableSharedLoadManager) {
+            throw new RuntimeException(KEY_ENABLE_TWO_PHASE_COMMIT + " and " + KEY_ENABLE_SHARED_LOAD_MANAGER +
+                    " can't be enabled at the same time");
+        }
+        epochLogDir = get(KEY_EPOCH_LOG_DIR);
+        if (epochLogDir == null) {
+            originOptions.entrySet().stream()
+                    .filter(entry -> KEY_CHECKPOINT_LOCATION.equalsIgnoreCase(entry.getKey()))
+                    .findFirst()
+                    .ifPresent(entry -> epochLogDir = entry.getValue() + "/starrocks-epochs");
+        }
     }
 
     public String getFormat() {
@@ -145,7 +207,47 @@ public class WriteStarRocksConfig extends StarRocksConfigBase {
         return partitionColumns;
     }
 
+    public int getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    public boolean isEnableSharedLoadManager() {
+        return enableSharedLoadManager;
+    }
+
+    public boolean isEnableTwoPhaseCommit() {
+        return enableTwoPhaseCommit;
+    }
+
+    public boolean isEnableAdaptiveFlush() {
+        return enableAdaptiveFlush;
+    }
+
+    public long getAdaptiveFlushMinSize() {
+        return adaptiveFlushMinSize;
+    }
+
+    public int getAdaptiveFlushTargetLatencyMs() {
+        return adaptiveFlushTargetLatencyMs;
+    }
+
+    public long getBufferSize() {
+        return bufferSize;
+    }
+
+    public String getLabelPrefix() {
+        return labelPrefix;
+    }
+
+    public String getEpochLogDir() {
+        return epochLogDir;
+    }
+
     public StreamLoadProperties toStreamLoadProperties() {
+        return toStreamLoadProperties(labelPrefix);
+    }
+
+    public StreamLoadProperties toStreamLoadProperties(String labelPrefix) {
         StreamLoadDataFormat dataFormat = "json".equalsIgnoreCase(format) ?
                 StreamLoadDataFormat.JSON : new StreamLoadDataFormat.CSVFormat(rowDelimiter);
         String columns = null;
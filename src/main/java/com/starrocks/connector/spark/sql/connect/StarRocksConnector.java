@@ -20,6 +20,7 @@
 package com.starrocks.connector.spark.sql.connect;
 
 import com.starrocks.connector.spark.exception.StarrocksException;
+import com.starrocks.connector.spark.sql.Utils;
 import com.starrocks.connector.spark.sql.conf.StarRocksConfig;
 import com.starrocks.connector.spark.sql.schema.StarRocksField;
 import com.starrocks.connector.spark.sql.schema.StarRocksSchema;
@@ -67,6 +68,74 @@ public class StarRocksConnector {
         return new StarRocksSchema(columns, pks);
     }
 
+    /**
+     * Get the max value of the column in the table as a string, or null if the table is empty.
+     */
+    public static String getMaxValue(StarRocksConfig config, String column) {
+        String sql = String.format("SELECT MAX(%s) FROM %s.%s",
+                Utils.quote(column), Utils.quote(config.getDatabase()), Utils.quote(config.getTable()));
+        try (Connection conn = DriverManager.getConnection(
+                    config.getFeJdbcUrl(), config.getUsername(), config.getPassword());
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get the max value of " + column, e);
+        }
+    }
+
+    private static final String TABLE_CONFIG_QUERY =
+            "SELECT `TABLE_MODEL`, `PARTITION_KEY`, `DISTRIBUTE_KEY`, `DISTRIBUTE_TYPE`, `DISTRIBUTE_BUCKET` " +
+                    "FROM `information_schema`.`tables_config` WHERE `TABLE_SCHEMA`=? AND `TABLE_NAME`=?;";
+
+    /**
+     * Get the configuration of the table, such as the partition key and the distribution
+     * key, keyed by the column names of information_schema.tables_config.
+     */
+    public static Map<String, String> getTableConfig(StarRocksConfig config) {
+        try {
+            return extractTableRowBySql(config, TABLE_CONFIG_QUERY);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get the config of table " + config.getTable(), e);
+        }
+    }
+
+    private static final String TABLE_STATISTICS_QUERY =
+            "SELECT `TABLE_ROWS`, `DATA_LENGTH` " +
+                    "FROM `information_schema`.`tables` WHERE `TABLE_SCHEMA`=? AND `TABLE_NAME`=?;";
+
+    /**
+     * Get the number of rows and the data size in bytes of the table collected by StarRocks FE,
+     * keyed by TABLE_ROWS and DATA_LENGTH.
+     */
+    public static Map<String, String> getTableStatistics(StarRocksConfig config) {
+        try {
+            return extractTableRowBySql(config, TABLE_STATISTICS_QUERY);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get the statistics of table " + config.getTable(), e);
+        }
+    }
+
+    // Query a row of the table from information_schema, which is empty if the table is not found
+    private static Map<String, String> extractTableRowBySql(StarRocksConfig config, String sql) throws Exception {
+        try (Connection conn = DriverManager.getConnection(
+                    config.getFeJdbcUrl(), config.getUsername(), config.getPassword());
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, config.getDatabase());
+            ps.setObject(2, config.getTable());
+            Map<String, String> row = new HashMap<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                if (rs.next()) {
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnName(i), rs.getString(i));
+                    }
+                }
+            }
+            return row;
+        }
+    }
+
     private static final String TABLE_SCHEMA_QUERY =
             "SELECT `COLUMN_NAME`, `ORDINAL_POSITION`, `COLUMN_KEY`, `DATA_TYPE`, `COLUMN_SIZE`, `DECIMAL_DIGITS` " +
                     "FROM `information_schema`.`COLUMNS` WHERE `TABLE_SCHEMA`=? AND `TABLE_NAME`=?;";
@@ -0,0 +1,133 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.connect;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.exception.StarrocksException;
+import com.starrocks.connector.spark.rest.RestService;
+import com.starrocks.connector.spark.sql.conf.StarRocksConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FENODES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_AUTH_PASSWORD;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_AUTH_USER;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_CONNECT_TIMEOUT_MS;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_READ_TIMEOUT_MS;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_RETRIES;
+
+/**
+ * Look up and finish the transactions of stream load by their labels through StarRocks FE.
+ * It's used to recover the transactions of a previous attempt, for which there is no
+ * {@link com.starrocks.data.load.stream.StreamLoadSnapshot}. The states are requested through
+ * {@link RestService} with retries, but a commit or rollback is sent only once.
+ */
+public class TransactionLabelClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionLabelClient.class);
+
+    public static final String STATE_PREPARED = "PREPARED";
+    public static final String STATE_COMMITTED = "COMMITTED";
+    public static final String STATE_VISIBLE = "VISIBLE";
+    public static final String STATE_ABORTED = "ABORTED";
+    public static final String STATE_UNKNOWN = "UNKNOWN";
+
+    private final Settings settings;
+    // FE is requested in https if it's configured so, otherwise in http
+    private final String scheme;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public TransactionLabelClient(StarRocksConfig config) {
+        String[] feHttpUrls = Arrays.stream(config.getFeHttpUrls()).map(String::trim).toArray(String[]::new);
+        this.scheme = Arrays.stream(feHttpUrls).anyMatch(url -> url.startsWith("https://")) ? "https" : "http";
+        this.settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_FENODES, Arrays.stream(feHttpUrls)
+                .map(url -> url.replaceFirst("^https?://", ""))
+                .collect(Collectors.joining(",")));
+        settings.setProperty(STARROCKS_REQUEST_AUTH_USER, config.getUsername());
+        settings.setProperty(STARROCKS_REQUEST_AUTH_PASSWORD, config.getPassword() == null ? "" : config.getPassword());
+        settings.setProperty(STARROCKS_REQUEST_CONNECT_TIMEOUT_MS,
+                String.valueOf(config.getHttpRequestConnectTimeoutMs()));
+        settings.setProperty(STARROCKS_REQUEST_READ_TIMEOUT_MS, String.valueOf(config.getHttpRequestSocketTimeoutMs()));
+        settings.setProperty(STARROCKS_REQUEST_RETRIES, String.valueOf(Math.max(1, config.getHttpRequestRetries())));
+    }
+
+    /**
+     * Get the state of the transaction with the label, such as PREPARED, COMMITTED,
+     * VISIBLE, ABORTED, or UNKNOWN if the label does not exist.
+     */
+    public String getLabelState(String database, String label) throws IOException {
+        String path = String.format("/api/%s/get_load_state?label=%s",
+                database, URLEncoder.encode(label, StandardCharsets.UTF_8.name()));
+        String body;
+        try {
+            body = RestService.sendToFrontend(settings, scheme, new HttpGet(), path, LOG);
+        } catch (StarrocksException e) {
+            throw new IOException("Failed to request " + path, e);
+        }
+        JsonNode state = mapper.readTree(body).get("state");
+        return state == null ? STATE_UNKNOWN : state.asText();
+    }
+
+    public boolean commit(String database, String table, String label) throws IOException {
+        return finish("/api/transaction/commit", database, table, label, STATE_COMMITTED, STATE_VISIBLE);
+    }
+
+    public boolean rollback(String database, String table, String label) throws IOException {
+        return finish("/api/transaction/rollback", database, table, label, STATE_ABORTED);
+    }
+
+    // The request is sent only once, and if it fails, which may happen after FE has finished the
+    // transaction, such as on a timeout, the state of the label tells whether it's finished
+    private boolean finish(String path, String database, String table, String label, String... finishedStates)
+            throws IOException {
+        HttpPost request = new HttpPost();
+        request.setHeader("label", label);
+        request.setHeader("db", database);
+        request.setHeader("table", table);
+        try {
+            String body = RestService.sendTransaction(settings, scheme, request, path, LOG);
+            LOG.debug("Response of {} is {}", request.getURI(), body);
+            JsonNode status = mapper.readTree(body).get("Status");
+            if (status != null && "OK".equalsIgnoreCase(status.asText())) {
+                return true;
+            }
+            LOG.warn("Failed to request {} for label {}, response: {}", path, label, body);
+        } catch (StarrocksException | IOException e) {
+            LOG.warn("Failed to request {} for label {}", path, label, e);
+        }
+
+        String state = getLabelState(database, label);
+        boolean finished = Arrays.stream(finishedStates).anyMatch(state::equalsIgnoreCase);
+        LOG.info("State of label {} after the failed request {} is {}", label, path, state);
+        return finished;
+    }
+}
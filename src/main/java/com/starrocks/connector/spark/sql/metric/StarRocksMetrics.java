@@ -0,0 +1,206 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.metric;
+
+import org.apache.spark.sql.connector.metric.CustomMetric;
+import org.apache.spark.sql.connector.metric.CustomSumMetric;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+
+import java.util.Arrays;
+
+/**
+ * Custom metrics of the read and write tasks, which are shown in the SQL tab of Spark UI
+ * and summed over the tasks of the stage, except for the tablets of the table which are the
+ * same in all tasks. Spark creates the metrics by the class name, so
+ * each metric is a public class with a no-arg constructor.
+ *
+ * <p>The time of a flush is how long the task waits for it, which includes the loads running
+ * in the background and isn't the latency of each stream load. The latency and the retries of
+ * each stream load aren't reported, since the stream load SDK doesn't expose them to the writer.
+ */
+public final class StarRocksMetrics {
+
+    public static final String BYTES_READ = "starRocksBytesRead";
+    public static final String BATCHES_READ = "starRocksBatchesRead";
+    public static final String SCAN_TIME = "starRocksScanTime";
+    public static final String DECODE_TIME = "starRocksDecodeTime";
+    public static final String TABLETS_SCANNED = "starRocksTabletsScanned";
+    public static final String TOTAL_TABLETS = "starRocksTotalTablets";
+
+    public static final String ROWS_WRITTEN = "starRocksRowsWritten";
+    public static final String BYTES_WRITTEN = "starRocksBytesWritten";
+    public static final String FLUSH_COUNT = "starRocksFlushCount";
+    public static final String FLUSH_WAIT_TIME = "starRocksFlushWaitTime";
+
+    private StarRocksMetrics() {
+    }
+
+    public static CustomMetric[] readMetrics() {
+        return new CustomMetric[] {
+                new BytesRead(), new BatchesRead(), new ScanTime(), new DecodeTime(),
+                new TabletsScanned(), new TotalTablets()
+        };
+    }
+
+    public static CustomMetric[] writeMetrics() {
+        return new CustomMetric[] {
+                new RowsWritten(), new BytesWritten(), new FlushCount(), new FlushWaitTime()
+        };
+    }
+
+    public static CustomTaskMetric taskMetric(String name, long value) {
+        return new CustomTaskMetric() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public long value() {
+                return value;
+            }
+        };
+    }
+
+    public static class BytesRead extends CustomSumMetric {
+        @Override
+        public String name() {
+            return BYTES_READ;
+        }
+
+        @Override
+        public String description() {
+            return "bytes received from StarRocks BE";
+        }
+    }
+
+    public static class BatchesRead extends CustomSumMetric {
+        @Override
+        public String name() {
+            return BATCHES_READ;
+        }
+
+        @Override
+        public String description() {
+            return "batches received from StarRocks BE";
+        }
+    }
+
+    public static class ScanTime extends CustomSumMetric {
+        @Override
+        public String name() {
+            return SCAN_TIME;
+        }
+
+        @Override
+        public String description() {
+            return "time waiting for StarRocks BE to return batches (ms)";
+        }
+    }
+
+    public static class DecodeTime extends CustomSumMetric {
+        @Override
+        public String name() {
+            return DECODE_TIME;
+        }
+
+        @Override
+        public String description() {
+            return "time decoding arrow batches (ms)";
+        }
+    }
+
+    public static class TabletsScanned extends CustomSumMetric {
+        @Override
+        public String name() {
+            return TABLETS_SCANNED;
+        }
+
+        @Override
+        public String description() {
+            return "tablets scanned in StarRocks";
+        }
+    }
+
+    public static class TotalTablets implements CustomMetric {
+        @Override
+        public String name() {
+            return TOTAL_TABLETS;
+        }
+
+        @Override
+        public String description() {
+            return "tablets of the StarRocks table";
+        }
+
+        @Override
+        public String aggregateTaskMetrics(long[] taskMetrics) {
+            return String.valueOf(Arrays.stream(taskMetrics).max().orElse(0));
+        }
+    }
+
+    public static class RowsWritten extends CustomSumMetric {
+        @Override
+        public String name() {
+            return ROWS_WRITTEN;
+        }
+
+        @Override
+        public String description() {
+            return "rows written to StarRocks";
+        }
+    }
+
+    public static class BytesWritten extends CustomSumMetric {
+        @Override
+        public String name() {
+            return BYTES_WRITTEN;
+        }
+
+        @Override
+        public String description() {
+            return "bytes written to StarRocks";
+        }
+    }
+
+    public static class FlushCount extends CustomSumMetric {
+        @Override
+        public String name() {
+            return FLUSH_COUNT;
+        }
+
+        @Override
+        public String description() {
+            return "flushes of stream load";
+        }
+    }
+
+    public static class FlushWaitTime extends CustomSumMetric {
+        @Override
+        public String name() {
+            return FLUSH_WAIT_TIME;
+        }
+
+        @Override
+        public String description() {
+            return "time waiting for flushes of stream load (ms)";
+        }
+    }
+}
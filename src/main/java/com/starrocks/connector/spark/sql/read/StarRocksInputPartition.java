@@ -0,0 +1,64 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.starrocks.connector.spark.rest.BackendLocality;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import org.apache.spark.sql.connector.read.InputPartition;
+
+public class StarRocksInputPartition implements InputPartition {
+
+    // a partition without tablets, which pads the partitions to the reported number
+    private static final StarRocksInputPartition EMPTY = new StarRocksInputPartition(null);
+
+    private final PartitionDefinition partition;
+    // number of tablets of the table, which is -1 if unknown
+    private final long totalTablets;
+
+    public StarRocksInputPartition(PartitionDefinition partition) {
+        this(partition, -1);
+    }
+
+    public StarRocksInputPartition(PartitionDefinition partition, long totalTablets) {
+        this.partition = partition;
+        this.totalTablets = totalTablets;
+    }
+
+    public static StarRocksInputPartition empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return partition == null;
+    }
+
+    public PartitionDefinition getPartition() {
+        return partition;
+    }
+
+    public long getTotalTablets() {
+        return totalTablets;
+    }
+
+    @Override
+    public String[] preferredLocations() {
+        return isEmpty() ? new String[0] : BackendLocality.preferredLocations(partition);
+    }
+}
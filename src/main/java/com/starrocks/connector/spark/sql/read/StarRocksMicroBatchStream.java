@@ -0,0 +1,174 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.exception.StarrocksException;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import com.starrocks.connector.spark.rest.RestService;
+import com.starrocks.connector.spark.rest.models.Tablet;
+import com.starrocks.connector.spark.sql.Utils;
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
+import com.starrocks.connector.spark.sql.connect.StarRocksConnector;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+import org.apache.spark.sql.jdbc.JdbcDialect;
+import org.apache.spark.sql.jdbc.JdbcDialects;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.NumericType;
+import org.apache.spark.sql.types.StructType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
+
+/**
+ * Read the rows loaded into a StarRocks table since the last micro-batch.
+ *
+ * <p>StarRocks BE scans a version of the tablets rather than the changes between two versions,
+ * so the rows of a micro-batch are selected by the range of an incremental column, whose values
+ * increase with the loads. A digest of the versions of the tablets is tracked in the offsets to
+ * find out whether there are new loads, and the max value of the column is queried only if there are.
+ * It works for duplicate key tables which are only appended, and the rows updated or deleted,
+ * or loaded with a value not larger than the max value read, are not read.
+ */
+public class StarRocksMicroBatchStream implements MicroBatchStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksMicroBatchStream.class);
+
+    private final StructType readSchema;
+    private final Settings settings;
+    private final ReadStarRocksConfig config;
+    private final String incrementalColumn;
+    // whether the values of the column are compared as numbers, otherwise as strings
+    private final boolean numericColumn;
+    private final JdbcDialect dialect = JdbcDialects.get("");
+
+    private StarRocksStreamOffset latestOffset;
+
+    public StarRocksMicroBatchStream(StructType readSchema, Settings settings,
+                                     ReadStarRocksConfig config, DataType incrementalColumnType) {
+        this.readSchema = readSchema;
+        this.settings = settings;
+        this.config = config;
+        this.incrementalColumn = config.getStreamIncrementalColumn();
+        this.numericColumn = incrementalColumnType instanceof NumericType;
+    }
+
+    @Override
+    public Offset initialOffset() {
+        return new StarRocksStreamOffset(null, config.getStreamStartValue());
+    }
+
+    @Override
+    public Offset latestOffset() {
+        String tabletVersionsDigest = StarRocksStreamOffset.digest(getTabletVersions());
+        if (latestOffset != null && tabletVersionsDigest.equals(latestOffset.getTabletVersionsDigest())) {
+            return latestOffset;
+        }
+        String watermark = StarRocksConnector.getMaxValue(config, incrementalColumn);
+        if (watermark == null && latestOffset != null) {
+            watermark = latestOffset.getWatermark();
+        }
+        latestOffset = new StarRocksStreamOffset(tabletVersionsDigest, watermark);
+        LOG.info("Latest offset of {}.{} is {}", config.getDatabase(), config.getTable(), watermark);
+        return latestOffset;
+    }
+
+    private Map<Long, Long> getTabletVersions() {
+        Settings planSettings = settings.copy();
+        planSettings.setProperty(STARROCKS_READ_FIELD, Utils.quote(incrementalColumn));
+        // versions of all tablets, including those pruned by the filter
+        planSettings.setProperty(STARROCKS_FILTER_QUERY, "");
+        Map<Long, Long> tabletVersions = new TreeMap<>();
+        try {
+            for (Map.Entry<String, Tablet> tablet
+                    : RestService.requestQueryPlan(planSettings, LOG).getPartitions().entrySet()) {
+                tabletVersions.put(Long.parseLong(tablet.getKey()), (long) tablet.getValue().getVersion());
+            }
+        } catch (StarrocksException e) {
+            throw new RuntimeException("Failed to get the tablet versions of " + config.getTable(), e);
+        }
+        return tabletVersions;
+    }
+
+    @Override
+    public InputPartition[] planInputPartitions(Offset start, Offset end) {
+        String startValue = ((StarRocksStreamOffset) start).getWatermark();
+        String endValue = ((StarRocksStreamOffset) end).getWatermark();
+        if (endValue == null || endValue.equals(startValue)) {
+            return new InputPartition[0];
+        }
+
+        String column = Utils.quote(incrementalColumn);
+        String range = column + " <= " + compileValue(endValue);
+        if (startValue != null) {
+            range = column + " > " + compileValue(startValue) + " and " + range;
+        }
+        Settings batchSettings = settings.copy();
+        String filter = batchSettings.getProperty(STARROCKS_FILTER_QUERY);
+        batchSettings.setProperty(STARROCKS_FILTER_QUERY,
+                filter == null || filter.isEmpty() ? range : "(" + filter + ") and " + range);
+        LOG.info("Plan micro-batch of {}.{} with filter {}", config.getDatabase(), config.getTable(),
+                batchSettings.getProperty(STARROCKS_FILTER_QUERY));
+
+        List<PartitionDefinition> partitions;
+        try {
+            partitions = PartitionDefinition.broadcastContext(
+                    SparkContext.getOrCreate(), RestService.findPartitions(batchSettings, LOG));
+        } catch (StarrocksException e) {
+            throw new RuntimeException("Failed to plan partitions of micro-batch with " + range, e);
+        }
+        return partitions.stream()
+                .map(StarRocksInputPartition::new)
+                .toArray(InputPartition[]::new);
+    }
+
+    private String compileValue(String value) {
+        return numericColumn ? value : String.valueOf(dialect.compileValue(value));
+    }
+
+    @Override
+    public PartitionReaderFactory createReaderFactory() {
+        return new StarRocksPartitionReaderFactory(readSchema);
+    }
+
+    @Override
+    public Offset deserializeOffset(String json) {
+        return StarRocksStreamOffset.fromJson(json);
+    }
+
+    @Override
+    public void commit(Offset end) {
+        // nothing to clean up, the tablets are scanned by versions
+    }
+
+    @Override
+    public void stop() {
+    }
+}
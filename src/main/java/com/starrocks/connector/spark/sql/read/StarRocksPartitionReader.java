@@ -0,0 +1,114 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.starrocks.connector.spark.exception.IllegalArgumentException;
+import com.starrocks.connector.spark.rdd.ScalaValueReader;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import com.starrocks.connector.spark.sql.metric.StarRocksMetrics;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+import org.apache.spark.sql.connector.read.PartitionReader;
+import org.apache.spark.sql.types.StructType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Function1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the rows of a partition from StarRocks BE, and converts them to {@link InternalRow}.
+ */
+public class StarRocksPartitionReader implements PartitionReader<InternalRow> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksPartitionReader.class);
+
+    private final ScalaValueReader reader;
+    private final Function1<Object, Object> converter;
+    private final int numFields;
+    private final long tablets;
+    private final long totalTablets;
+    private InternalRow current;
+
+    public StarRocksPartitionReader(PartitionDefinition partition, StructType readSchema) {
+        this(partition, readSchema, -1);
+    }
+
+    public StarRocksPartitionReader(PartitionDefinition partition, StructType readSchema, long totalTablets) {
+        this.tablets = partition.getTabletIds().size();
+        this.totalTablets = totalTablets;
+        // the scanner is opened last, so that it's always closed by close() once opened
+        this.converter = CatalystTypeConverters.createToCatalystConverter(readSchema);
+        this.numFields = readSchema.fields().length;
+        try {
+            this.reader = new ScalaValueReader(partition, partition.settings());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Failed to load settings of " + partition, e);
+        }
+        LOG.debug("Open partition reader for {}", partition);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean next() {
+        if (!reader.hasNext()) {
+            return false;
+        }
+        List<Object> values = (List<Object>) reader.next();
+        if (numFields == 0) {
+            current = new GenericInternalRow(0);
+        } else {
+            current = (InternalRow) converter.apply(RowFactory.create(values.toArray()));
+        }
+        return true;
+    }
+
+    @Override
+    public InternalRow get() {
+        return current;
+    }
+
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        List<CustomTaskMetric> metrics = new ArrayList<>(Arrays.asList(
+                StarRocksMetrics.taskMetric(StarRocksMetrics.BYTES_READ, reader.bytesRead().get()),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.BATCHES_READ, reader.batchesRead().get()),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.SCAN_TIME,
+                        TimeUnit.NANOSECONDS.toMillis(reader.scanTimeNs().get())),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.DECODE_TIME,
+                        TimeUnit.NANOSECONDS.toMillis(reader.decodeTimeNs().get())),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.TABLETS_SCANNED, tablets)));
+        if (totalTablets >= 0) {
+            metrics.add(StarRocksMetrics.taskMetric(StarRocksMetrics.TOTAL_TABLETS, totalTablets));
+        }
+        return metrics.toArray(new CustomTaskMetric[0]);
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReader;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.types.StructType;
+
+import java.util.NoSuchElementException;
+
+public class StarRocksPartitionReaderFactory implements PartitionReaderFactory {
+
+    private final StructType readSchema;
+
+    public StarRocksPartitionReaderFactory(StructType readSchema) {
+        this.readSchema = readSchema;
+    }
+
+    @Override
+    public PartitionReader<InternalRow> createReader(InputPartition partition) {
+        StarRocksInputPartition inputPartition = (StarRocksInputPartition) partition;
+        if (inputPartition.isEmpty()) {
+            return new EmptyPartitionReader();
+        }
+        return new StarRocksPartitionReader(
+                inputPartition.getPartition(), readSchema, inputPartition.getTotalTablets());
+    }
+
+    private static class EmptyPartitionReader implements PartitionReader<InternalRow> {
+
+        @Override
+        public boolean next() {
+            return false;
+        }
+
+        @Override
+        public InternalRow get() {
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
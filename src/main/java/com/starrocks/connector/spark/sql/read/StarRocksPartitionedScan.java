@@ -0,0 +1,107 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.SupportsReportPartitioning;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.StructType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scan of a hash distributed StarRocks table without partitions, which reports to Spark that
+ * the rows are clustered by the distribution columns. Each tablet is a bucket of the table and
+ * is read by only one Spark partition, so the rows with the same distribution key are always
+ * in the same Spark partition.
+ *
+ * <p>Spark requires the number of partitions to be the same as reported after the runtime
+ * filtering, so the partitions planned again are padded with empty partitions. If there are
+ * more partitions than reported, the runtime filters are ignored and the reported partitions
+ * are read instead.
+ */
+public class StarRocksPartitionedScan extends StarRocksScan implements SupportsReportPartitioning {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksPartitionedScan.class);
+
+    private final String[] distributionColumns;
+
+    // partitions planned before the runtime filtering, whose number is reported to Spark
+    private List<PartitionDefinition> reportedDefinitions;
+    private InputPartition[] reportedPartitions;
+    private InputPartition[] plannedPartitions;
+    private InputPartition[] paddedPartitions;
+
+    public StarRocksPartitionedScan(StructType tableSchema, StructType readSchema, Filter[] pushedFilters,
+                                    Settings settings, ReadStarRocksConfig config, String[] distributionColumns) {
+        super(tableSchema, readSchema, pushedFilters, settings, config);
+        this.distributionColumns = distributionColumns;
+    }
+
+    @Override
+    public String description() {
+        return super.description() + ", distribution columns: " + Arrays.toString(distributionColumns);
+    }
+
+    @Override
+    public Partitioning outputPartitioning() {
+        // only the number of partitions is needed, so their contexts are not broadcast yet
+        return new StarRocksPartitioning(reportedDefinitions().size(), distributionColumns);
+    }
+
+    private List<PartitionDefinition> reportedDefinitions() {
+        if (reportedDefinitions == null) {
+            reportedDefinitions = planPartitionDefinitions();
+        }
+        return reportedDefinitions;
+    }
+
+    @Override
+    public InputPartition[] planInputPartitions() {
+        List<PartitionDefinition> reported = reportedDefinitions();
+        List<PartitionDefinition> planned = planPartitionDefinitions();
+        if (planned == reported) {
+            return super.planInputPartitions();
+        }
+        if (planned.size() > reported.size()) {
+            if (reportedPartitions == null) {
+                LOG.warn("There are {} partitions after runtime filtering, more than the reported {}, " +
+                        "so the runtime filters are ignored", planned.size(), reported.size());
+                reportedPartitions = toInputPartitions(reported);
+            }
+            return reportedPartitions;
+        }
+
+        InputPartition[] partitions = super.planInputPartitions();
+        if (partitions != plannedPartitions) {
+            plannedPartitions = partitions;
+            paddedPartitions = Arrays.copyOf(partitions, reported.size());
+            Arrays.fill(paddedPartitions, partitions.length, paddedPartitions.length, StarRocksInputPartition.empty());
+        }
+        return paddedPartitions;
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import org.apache.spark.sql.connector.read.partitioning.ClusteredDistribution;
+import org.apache.spark.sql.connector.read.partitioning.Distribution;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The partitioning of a scan whose partitions are groups of whole buckets of a hash distributed
+ * table, so all rows with the same values of the distribution columns are in the same partition.
+ *
+ * <p>It's built on the {@link Distribution} API of Spark 3.2, which Spark 3.3 replaces with
+ * {@code KeyGroupedPartitioning}, so it's only created when running on Spark 3.2, see
+ * {@link StarRocksScanBuilder}. Spark 3.2 only uses it to avoid the shuffle of aggregations,
+ * not of joins between co-bucketed tables.
+ */
+public class StarRocksPartitioning implements Partitioning {
+
+    private final int numPartitions;
+    private final String[] distributionColumns;
+
+    public StarRocksPartitioning(int numPartitions, String[] distributionColumns) {
+        this.numPartitions = numPartitions;
+        this.distributionColumns = distributionColumns;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public boolean satisfy(Distribution distribution) {
+        if (!(distribution instanceof ClusteredDistribution)) {
+            return false;
+        }
+        // rows clustered by the distribution columns are also clustered by their superset
+        Set<String> clusteredColumns =
+                new HashSet<>(Arrays.asList(((ClusteredDistribution) distribution).clusteredColumns));
+        return clusteredColumns.containsAll(Arrays.asList(distributionColumns));
+    }
+
+    public String[] getDistributionColumns() {
+        return distributionColumns;
+    }
+}
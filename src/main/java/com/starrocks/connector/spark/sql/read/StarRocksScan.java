@@ -0,0 +1,443 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.exception.StarrocksException;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import com.starrocks.connector.spark.rest.RestService;
+import com.starrocks.connector.spark.rest.models.QueryPlan;
+import com.starrocks.connector.spark.sql.Utils;
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
+import com.starrocks.connector.spark.sql.connect.StarRocksConnector;
+import com.starrocks.connector.spark.sql.metric.StarRocksMetrics;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.connector.expressions.Expressions;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.connector.metric.CustomMetric;
+import org.apache.spark.sql.connector.read.Batch;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.Statistics;
+import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.connector.read.SupportsRuntimeFiltering;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
+import org.apache.spark.sql.jdbc.JdbcDialect;
+import org.apache.spark.sql.jdbc.JdbcDialects;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_MAX_COUNT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_TARGET_BYTES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_TARGET_ROWS;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_ROWS_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLE_IDENTIFIER;
+
+/**
+ * Scan of a StarRocks table, which plans a partition for a group of tablets on the same BE.
+ * The filters found by Spark at runtime, such as the join keys of dynamic partition pruning,
+ * are pushed into the query plan before the partitions are planned.
+ *
+ * <p>The statistics of the table collected by StarRocks FE are reported to Spark, scaled by the
+ * fraction of tablets left after pruning by the pushed filters and by the fraction of columns
+ * read, so that Spark can broadcast small tables in joins.
+ */
+public class StarRocksScan implements Scan, Batch, SupportsRuntimeFiltering, SupportsReportStatistics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksScan.class);
+
+    private final StructType tableSchema;
+    private final StructType readSchema;
+    private final Filter[] pushedFilters;
+    private final Settings settings;
+    private final ReadStarRocksConfig config;
+    private final JdbcDialect dialect = JdbcDialects.get("");
+    private final List<Filter> runtimeFilters = new ArrayList<>();
+
+    // planned partitions, which are planned again after runtime filtering. The contexts of the
+    // partitions are broadcast only when the partitions are handed to Spark to run the scan
+    private List<PartitionDefinition> definitions;
+    private InputPartition[] partitions;
+    // query plan of the filter, which is requested again after runtime filtering
+    private QueryPlan queryPlan;
+    private String queryPlanFilter;
+    // number of tablets selected by the query plan, and of the whole table, which are -1 if unknown
+    private long selectedTablets = -1;
+    private long totalTablets = -1;
+    private Statistics statistics;
+    private Map<String, String> tableStatistics;
+    // query plan requested when the scan is created, and the filter of the request
+    private CompletableFuture<QueryPlan> prefetchedQueryPlan;
+    private String prefetchedFilterQuery;
+
+    public StarRocksScan(StructType tableSchema, StructType readSchema, Filter[] pushedFilters,
+                         Settings settings, ReadStarRocksConfig config) {
+        this.tableSchema = tableSchema;
+        this.readSchema = readSchema;
+        this.pushedFilters = pushedFilters;
+        this.settings = settings;
+        this.config = config;
+        if (config.isEnablePlanPrefetch()) {
+            prefetchedFilterQuery = settings.getProperty(STARROCKS_FILTER_QUERY);
+            prefetchedQueryPlan = RestService.requestQueryPlanAsync(settings, LOG);
+        }
+    }
+
+    @Override
+    public StructType readSchema() {
+        return readSchema;
+    }
+
+    @Override
+    public String description() {
+        return String.format("StarRocksScan[%s] columns: [%s], pushed filters: %s, runtime filters: %s, " +
+                        "selected tablets: %s",
+                settings.getProperty(STARROCKS_TABLE_IDENTIFIER),
+                String.join(", ", readSchema.fieldNames()),
+                Arrays.toString(pushedFilters),
+                runtimeFilters,
+                describeSelectedTablets());
+    }
+
+    // The tablets are known only after the query plan is requested, which happens before the
+    // scan runs, so they are shown in the plan of finished queries in the SQL tab of Spark UI
+    private String describeSelectedTablets() {
+        if (selectedTablets < 0) {
+            return "unknown";
+        }
+        return totalTablets < 0 ? String.valueOf(selectedTablets) : selectedTablets + "/" + totalTablets;
+    }
+
+    @Override
+    public Batch toBatch() {
+        return this;
+    }
+
+    @Override
+    public MicroBatchStream toMicroBatchStream(String checkpointLocation) {
+        // each micro-batch requests the query plan of its own range, so the prefetched one is never used
+        CompletableFuture<QueryPlan> prefetched = prefetchedQueryPlan;
+        prefetchedQueryPlan = null;
+        if (prefetched != null) {
+            prefetched.cancel(false);
+        }
+        String column = config.getStreamIncrementalColumn();
+        StructField field = Arrays.stream(tableSchema.fields())
+                .filter(f -> f.name().equalsIgnoreCase(column))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException(
+                        "Incremental column " + column + " doesn't exist in " + tableSchema.simpleString()));
+        return new StarRocksMicroBatchStream(readSchema, settings, config, field.dataType());
+    }
+
+    @Override
+    public NamedReference[] filterAttributes() {
+        // StarRocks can prune partitions and tablets, and skip data by the zone maps of any column
+        return Arrays.stream(readSchema.fieldNames())
+                .map(name -> Expressions.column("`" + name.replace("`", "``") + "`"))
+                .toArray(NamedReference[]::new);
+    }
+
+    @Override
+    public void filter(Filter[] filters) {
+        List<String> predicates = new ArrayList<>();
+        for (Filter filter : filters) {
+            String predicate = compileRuntimeFilter(filter);
+            if (predicate != null) {
+                runtimeFilters.add(filter);
+                predicates.add("(" + predicate + ")");
+            }
+        }
+        if (predicates.isEmpty()) {
+            return;
+        }
+        String filterQuery = settings.getProperty(STARROCKS_FILTER_QUERY);
+        if (filterQuery != null && !filterQuery.isEmpty()) {
+            predicates.add(0, filterQuery);
+        }
+        settings.setProperty(STARROCKS_FILTER_QUERY, String.join(" and ", predicates));
+        definitions = null;
+        if (partitions != null) {
+            // the partitions planned before are replaced, so the copies of their contexts are not needed
+            PartitionDefinition.unpersistContext(Arrays.stream(partitions)
+                    .map(partition -> ((StarRocksInputPartition) partition).getPartition())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            partitions = null;
+        }
+        LOG.info("Push runtime filters {} to {}", runtimeFilters, settings.getProperty(STARROCKS_TABLE_IDENTIFIER));
+    }
+
+    // An IN list of the join keys which can't be pushed down exactly, such as one with null or too many values,
+    // is pushed as its bounds, since rows out of the bounds are never matched by the join
+    private String compileRuntimeFilter(Filter filter) {
+        int inValueLengthLimit = Math.min(
+                settings.getIntegerProperty(STARROCKS_FILTER_QUERY_IN_MAX_COUNT, 100),
+                STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT);
+        scala.Option<String> predicate = Utils.compileFilter(filter, dialect, inValueLengthLimit);
+        if (predicate.isDefined()) {
+            return predicate.get();
+        }
+        if (!(filter instanceof In)) {
+            return null;
+        }
+
+        In in = (In) filter;
+        // the bounds are ordered as StarRocks compares the values, e.g. strings by their UTF-8 bytes
+        scala.math.Ordering<Object> ordering = Utils.valueOrdering();
+        Object min = null;
+        Object max = null;
+        for (Object value : in.values()) {
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof Comparable) || (min != null && min.getClass() != value.getClass())) {
+                return null;
+            }
+            if (min == null || ordering.compare(value, min) < 0) {
+                min = value;
+            }
+            if (max == null || ordering.compare(value, max) > 0) {
+                max = value;
+            }
+        }
+        if (min == null) {
+            return null;
+        }
+        String column = Utils.quote(in.attribute());
+        return String.format("%s >= %s and %s <= %s",
+                column, dialect.compileValue(min), column, dialect.compileValue(max));
+    }
+
+    @Override
+    public InputPartition[] planInputPartitions() {
+        if (partitions == null) {
+            partitions = toInputPartitions(planPartitionDefinitions());
+        }
+        return partitions;
+    }
+
+    // Partitions of the current filter, without broadcasting their contexts
+    protected List<PartitionDefinition> planPartitionDefinitions() {
+        if (definitions != null) {
+            return definitions;
+        }
+        try {
+            // the tablets selected by the query plan are known before estimating the size of a
+            // tablet, so that an unfiltered scan counts the tablets of the table by the same plan
+            QueryPlan plan = getQueryPlan();
+            estimateTabletSize();
+            definitions = RestService.findPartitions(settings, plan, LOG);
+        } catch (StarrocksException e) {
+            throw new RuntimeException("Failed to plan partitions of " + description(), e);
+        }
+        if (totalTablets < 0) {
+            totalTablets = countTotalTablets();
+        }
+        LOG.info("Plan {} partitions of {}, selected tablets: {}",
+                definitions.size(), settings.getProperty(STARROCKS_TABLE_IDENTIFIER), describeSelectedTablets());
+        return definitions;
+    }
+
+    protected InputPartition[] toInputPartitions(List<PartitionDefinition> partitionDefinitions) {
+        return PartitionDefinition.broadcastContext(SparkContext.getOrCreate(), partitionDefinitions).stream()
+                .map(definition -> new StarRocksInputPartition(definition, totalTablets))
+                .toArray(InputPartition[]::new);
+    }
+
+    // The query plan of the filter is shared by the statistics and the partitions. The prefetched
+    // one is used unless the filter has been changed by runtime filtering
+    private QueryPlan getQueryPlan() throws StarrocksException {
+        String filterQuery = settings.getProperty(STARROCKS_FILTER_QUERY);
+        if (queryPlan != null && Objects.equals(queryPlanFilter, filterQuery)) {
+            return queryPlan;
+        }
+        CompletableFuture<QueryPlan> prefetched = prefetchedQueryPlan;
+        prefetchedQueryPlan = null;
+        queryPlan = prefetched != null && Objects.equals(prefetchedFilterQuery, filterQuery)
+                ? RestService.await(prefetched) : requestQueryPlan(settings);
+        queryPlanFilter = filterQuery;
+        selectedTablets = queryPlan.getPartitions().size();
+        return queryPlan;
+    }
+
+    @VisibleForTesting
+    QueryPlan requestQueryPlan(Settings planSettings) throws StarrocksException {
+        return RestService.requestQueryPlan(planSettings, LOG);
+    }
+
+    // The tablets of the table are those selected by the query plan without filters
+    private long countTotalTablets() {
+        String filterQuery = settings.getProperty(STARROCKS_FILTER_QUERY);
+        if ((filterQuery == null || filterQuery.isEmpty()) && selectedTablets >= 0) {
+            return selectedTablets;
+        }
+        Settings unfilteredSettings = settings.copy();
+        unfilteredSettings.setProperty(STARROCKS_FILTER_QUERY, "");
+        try {
+            return requestQueryPlan(unfilteredSettings).getPartitions().size();
+        } catch (Exception e) {
+            LOG.warn("Failed to count the tablets of {}", settings.getProperty(STARROCKS_TABLE_IDENTIFIER), e);
+            return -1;
+        }
+    }
+
+    // The bytes and rows of a tablet are estimated by the statistics of the table, so that the
+    // tablets on a BE are packed into a partition until the target bytes or rows are reached
+    private void estimateTabletSize() {
+        boolean estimateBytes = isSet(STARROCKS_PARTITION_TARGET_BYTES) && !isSet(STARROCKS_TABLET_BYTES_ESTIMATE);
+        boolean estimateRows = isSet(STARROCKS_PARTITION_TARGET_ROWS) && !isSet(STARROCKS_TABLET_ROWS_ESTIMATE);
+        if (!estimateBytes && !estimateRows) {
+            return;
+        }
+        if (totalTablets < 0) {
+            totalTablets = countTotalTablets();
+        }
+        if (totalTablets <= 0) {
+            return;
+        }
+        OptionalLong sizeInBytes = parseStatistic(loadTableStatistics().get("DATA_LENGTH"));
+        if (estimateBytes && sizeInBytes.isPresent()) {
+            long tabletBytes = (long) (sizeInBytes.getAsLong() * estimateColumnRatio() / totalTablets);
+            settings.setProperty(STARROCKS_TABLET_BYTES_ESTIMATE, String.valueOf(Math.max(1, tabletBytes)));
+        }
+        OptionalLong numRows = parseStatistic(loadTableStatistics().get("TABLE_ROWS"));
+        if (estimateRows && numRows.isPresent()) {
+            settings.setProperty(STARROCKS_TABLET_ROWS_ESTIMATE,
+                    String.valueOf(Math.max(1, numRows.getAsLong() / totalTablets)));
+        }
+        LOG.info("Estimate {} bytes and {} rows of a tablet of {}",
+                settings.getProperty(STARROCKS_TABLET_BYTES_ESTIMATE),
+                settings.getProperty(STARROCKS_TABLET_ROWS_ESTIMATE),
+                settings.getProperty(STARROCKS_TABLE_IDENTIFIER));
+    }
+
+    private boolean isSet(String key) {
+        String value = settings.getProperty(key);
+        return value != null && !value.trim().isEmpty();
+    }
+
+    @Override
+    public Statistics estimateStatistics() {
+        if (statistics == null) {
+            statistics = doEstimateStatistics();
+            LOG.info("Estimate {} for {}", statistics, settings.getProperty(STARROCKS_TABLE_IDENTIFIER));
+        }
+        return statistics;
+    }
+
+    private Statistics doEstimateStatistics() {
+        OptionalLong numRows = parseStatistic(loadTableStatistics().get("TABLE_ROWS"));
+        OptionalLong sizeInBytes = parseStatistic(loadTableStatistics().get("DATA_LENGTH"));
+        if (!numRows.isPresent() && !sizeInBytes.isPresent()) {
+            return StarRocksStatistics.unknown();
+        }
+
+        double tabletRatio = estimateSelectedTabletRatio();
+        double columnRatio = estimateColumnRatio();
+        return new StarRocksStatistics(
+                sizeInBytes.isPresent()
+                        ? OptionalLong.of((long) (sizeInBytes.getAsLong() * tabletRatio * columnRatio))
+                        : OptionalLong.empty(),
+                numRows.isPresent()
+                        ? OptionalLong.of((long) (numRows.getAsLong() * tabletRatio))
+                        : OptionalLong.empty());
+    }
+
+    // Statistics of the table collected by StarRocks FE, which are empty if unavailable
+    private Map<String, String> loadTableStatistics() {
+        if (tableStatistics == null) {
+            try {
+                tableStatistics = requestTableStatistics();
+            } catch (Exception e) {
+                LOG.warn("Failed to get the statistics of {}", settings.getProperty(STARROCKS_TABLE_IDENTIFIER), e);
+                tableStatistics = Collections.emptyMap();
+            }
+        }
+        return tableStatistics;
+    }
+
+    @VisibleForTesting
+    Map<String, String> requestTableStatistics() {
+        return StarRocksConnector.getTableStatistics(config);
+    }
+
+    // Fraction of the bytes of a row which are read, at least a column is read even if no column is required
+    private double estimateColumnRatio() {
+        return tableSchema.defaultSize() == 0
+                ? 1.0 : Math.min(1.0, (double) Math.max(1, readSchema.defaultSize()) / tableSchema.defaultSize());
+    }
+
+    private static OptionalLong parseStatistic(String value) {
+        try {
+            return value == null ? OptionalLong.empty() : OptionalLong.of(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    // Fraction of the tablets of the table selected by the query plan after StarRocks prunes
+    // the partitions and tablets by the pushed filters. Only the query plans are requested, and
+    // the partitions are planned when the scan runs
+    private double estimateSelectedTabletRatio() {
+        try {
+            getQueryPlan();
+        } catch (Exception e) {
+            LOG.warn("Failed to estimate the tablets selected by {}", settings.getProperty(STARROCKS_FILTER_QUERY), e);
+            return 1.0;
+        }
+        if (totalTablets < 0) {
+            totalTablets = countTotalTablets();
+        }
+        if (selectedTablets < 0 || totalTablets <= 0) {
+            return 1.0;
+        }
+        return Math.min(1.0, (double) selectedTablets / totalTablets);
+    }
+
+    @Override
+    public PartitionReaderFactory createReaderFactory() {
+        return new StarRocksPartitionReaderFactory(readSchema);
+    }
+
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return StarRocksMetrics.readMetrics();
+    }
+}
@@ -0,0 +1,204 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.cfg.SparkSettings;
+import com.starrocks.connector.spark.sql.Utils;
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
+import com.starrocks.connector.spark.sql.connect.StarRocksConnector;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.connector.read.SupportsPushDownFilters;
+import org.apache.spark.sql.connector.read.SupportsPushDownRequiredColumns;
+import org.apache.spark.sql.jdbc.JdbcDialect;
+import org.apache.spark.sql.jdbc.JdbcDialects;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_ROW_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_MAX_COUNT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
+
+public class StarRocksScanBuilder implements ScanBuilder, SupportsPushDownFilters, SupportsPushDownRequiredColumns {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksScanBuilder.class);
+
+    // Option of the relation with the StarRocks SQL of the filters which can't be pushed down
+    // as data source filters, set by PushDownStarRocksExpressions
+    public static final String PUSHED_EXPRESSIONS_OPTION = "starrocks.read.pushed-expressions";
+
+    private final StructType schema;
+    private final ReadStarRocksConfig config;
+    private final Settings settings;
+    private final int inValueLengthLimit;
+    private final JdbcDialect dialect = JdbcDialects.get("");
+    @Nullable
+    private final String pushedExpressions;
+
+    private StructType requiredSchema;
+    private Filter[] pushedFilters = new Filter[0];
+    private final List<String> pushedPredicates = new ArrayList<>();
+
+    public StarRocksScanBuilder(StructType schema, ReadStarRocksConfig config) {
+        this(schema, config, null);
+    }
+
+    public StarRocksScanBuilder(StructType schema, ReadStarRocksConfig config, @Nullable String pushedExpressions) {
+        this.schema = schema;
+        this.pushedExpressions = pushedExpressions;
+        this.requiredSchema = schema;
+        this.config = config;
+        this.settings = new SparkSettings(SparkSession.active().sparkContext().getConf())
+                .merge(Utils.params(config.getOriginOptions(), LOG));
+        this.inValueLengthLimit = Math.min(
+                settings.getIntegerProperty(STARROCKS_FILTER_QUERY_IN_MAX_COUNT, 100),
+                STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT);
+    }
+
+    @Override
+    public Filter[] pushFilters(Filter[] filters) {
+        List<Filter> pushed = new ArrayList<>();
+        List<Filter> unsupported = new ArrayList<>();
+        pushedPredicates.clear();
+        for (Filter filter : filters) {
+            scala.Option<String> predicate = Utils.compileFilter(filter, dialect, inValueLengthLimit);
+            if (predicate.isDefined()) {
+                pushed.add(filter);
+                pushedPredicates.add(predicate.get());
+            } else {
+                unsupported.add(filter);
+            }
+        }
+        this.pushedFilters = pushed.toArray(new Filter[0]);
+        return unsupported.toArray(new Filter[0]);
+    }
+
+    @Override
+    public Filter[] pushedFilters() {
+        return pushedFilters;
+    }
+
+    @Override
+    public void pruneColumns(StructType requiredSchema) {
+        this.requiredSchema = requiredSchema;
+    }
+
+    @Override
+    public Scan build() {
+        Settings scanSettings = settings.copy();
+        // StarRocks can't scan without columns, so read the first column if no column
+        // is required, such as count(*), and the rows are returned without columns
+        StructField[] readFields = requiredSchema.fields().length > 0
+                ? requiredSchema.fields() : new StructField[] {schema.fields()[0]};
+        scanSettings.setProperty(STARROCKS_READ_FIELD, Arrays.stream(readFields)
+                .map(field -> Utils.quote(field.name()))
+                .collect(Collectors.joining(",")));
+        scanSettings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, String.valueOf(Arrays.stream(readFields)
+                .mapToInt(field -> field.dataType().defaultSize())
+                .sum()));
+        List<String> predicates = new ArrayList<>(pushedPredicates);
+        if (pushedExpressions != null && !pushedExpressions.isEmpty()) {
+            predicates.add(pushedExpressions);
+        }
+        if (!predicates.isEmpty()) {
+            scanSettings.setProperty(STARROCKS_FILTER_QUERY, predicates.stream()
+                    .map(predicate -> "(" + predicate + ")")
+                    .collect(Collectors.joining(" and ")));
+        }
+        if (config.isEnableReportPartitioning() && !isReportPartitioningSupported()) {
+            LOG.warn("Don't report the partitioning of {}.{}, which is not supported by Spark {}",
+                    config.getDatabase(), config.getTable(), org.apache.spark.package$.MODULE$.SPARK_VERSION());
+        } else if (config.isEnableReportPartitioning()) {
+            String[] distributionColumns = getDistributionColumns();
+            if (distributionColumns != null) {
+                return new StarRocksPartitionedScan(
+                        schema, requiredSchema, pushedFilters, scanSettings, config, distributionColumns);
+            }
+        }
+        return new StarRocksScan(schema, requiredSchema, pushedFilters, scanSettings, config);
+    }
+
+    // Names of the distribution columns in the required schema, or null if the partitioning
+    // can't be reported because the table has partitions, is not hash distributed, or some
+    // of the distribution columns are not read
+    private String[] getDistributionColumns() {
+        Map<String, String> tableConfig;
+        try {
+            tableConfig = StarRocksConnector.getTableConfig(config);
+        } catch (Exception e) {
+            LOG.warn("Failed to get the distribution of {}.{}, and the partitioning is not reported",
+                    config.getDatabase(), config.getTable(), e);
+            return null;
+        }
+        String partitionKey = tableConfig.get("PARTITION_KEY");
+        String distributeKey = tableConfig.get("DISTRIBUTE_KEY");
+        if (!"HASH".equalsIgnoreCase(tableConfig.get("DISTRIBUTE_TYPE"))
+                || (partitionKey != null && !partitionKey.trim().isEmpty())
+                || distributeKey == null || distributeKey.trim().isEmpty()) {
+            LOG.info("Don't report the partitioning of {}.{}, table config: {}",
+                    config.getDatabase(), config.getTable(), tableConfig);
+            return null;
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String key : distributeKey.split(",")) {
+            String column = key.trim().replace("`", "");
+            Optional<String> name = Arrays.stream(requiredSchema.fieldNames())
+                    .filter(field -> field.equalsIgnoreCase(column))
+                    .findFirst();
+            if (!name.isPresent()) {
+                LOG.info("Don't report the partitioning of {}.{}, distribution column {} is not read",
+                        config.getDatabase(), config.getTable(), column);
+                return null;
+            }
+            columns.add(name.get());
+        }
+        return columns.toArray(new String[0]);
+    }
+
+    // The partitioning is reported through the Distribution API of Spark 3.2, which is removed in
+    // Spark 3.3. The check is here, so that StarRocksPartitioning is only loaded on Spark 3.2
+    private static boolean isReportPartitioningSupported() {
+        return isReportPartitioningSupported(org.apache.spark.package$.MODULE$.SPARK_VERSION());
+    }
+
+    @VisibleForTesting
+    static boolean isReportPartitioningSupported(String sparkVersion) {
+        String[] version = sparkVersion.split("\\.");
+        return version.length >= 2 && "3".equals(version[0]) && Integer.parseInt(version[1]) <= 2;
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import org.apache.spark.sql.connector.read.Statistics;
+
+import java.util.OptionalLong;
+
+/**
+ * Estimated statistics of a scan, which are empty if they are unknown.
+ */
+public class StarRocksStatistics implements Statistics {
+
+    private final OptionalLong sizeInBytes;
+    private final OptionalLong numRows;
+
+    public StarRocksStatistics(OptionalLong sizeInBytes, OptionalLong numRows) {
+        this.sizeInBytes = sizeInBytes;
+        this.numRows = numRows;
+    }
+
+    public static StarRocksStatistics unknown() {
+        return new StarRocksStatistics(OptionalLong.empty(), OptionalLong.empty());
+    }
+
+    @Override
+    public OptionalLong sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    public OptionalLong numRows() {
+        return numRows;
+    }
+
+    @Override
+    public String toString() {
+        return "StarRocksStatistics{sizeInBytes=" + sizeInBytes + ", numRows=" + numRows + '}';
+    }
+}
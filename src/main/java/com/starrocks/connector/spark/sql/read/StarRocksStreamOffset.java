@@ -0,0 +1,119 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Offset of the streaming read, which is the max value of the incremental column read so far,
+ * and a digest of the versions of the tablets when the value was taken. The versions tell whether
+ * there are new loads, so the max value is not queried if no tablet changes. Only the digest is
+ * kept, so the offsets written to the checkpoint on each trigger don't grow with the tablets.
+ */
+public class StarRocksStreamOffset extends Offset {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // null before the versions are known
+    @Nullable
+    private final String tabletVersionsDigest;
+    // null if nothing has been read
+    @Nullable
+    private final String watermark;
+
+    public StarRocksStreamOffset(@Nullable String tabletVersionsDigest, @Nullable String watermark) {
+        this.tabletVersionsDigest = tabletVersionsDigest;
+        this.watermark = watermark;
+    }
+
+    // The offsets written before the digest contain the versions of the tablets
+    @JsonCreator
+    static StarRocksStreamOffset create(@JsonProperty("tabletVersionsDigest") @Nullable String tabletVersionsDigest,
+                                        @JsonProperty("tabletVersions") @Nullable Map<Long, Long> tabletVersions,
+                                        @JsonProperty("watermark") @Nullable String watermark) {
+        if (tabletVersionsDigest == null && tabletVersions != null) {
+            tabletVersionsDigest = digest(tabletVersions);
+        }
+        return new StarRocksStreamOffset(tabletVersionsDigest, watermark);
+    }
+
+    /**
+     * Digest of the versions of the tablets, which is the same for the same versions in any order.
+     */
+    public static String digest(Map<Long, Long> tabletVersions) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to digest the tablet versions", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(tabletVersions).entrySet()) {
+            buffer.clear();
+            buffer.putLong(entry.getKey()).putLong(entry.getValue());
+            digest.update(buffer.array());
+        }
+        StringBuilder hex = new StringBuilder(tabletVersions.size() + ":");
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    public static StarRocksStreamOffset fromJson(String json) {
+        try {
+            return MAPPER.readValue(json, StarRocksStreamOffset.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse the offset " + json, e);
+        }
+    }
+
+    @JsonProperty("tabletVersionsDigest")
+    @Nullable
+    public String getTabletVersionsDigest() {
+        return tabletVersionsDigest;
+    }
+
+    @JsonProperty("watermark")
+    @Nullable
+    public String getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public String json() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize the offset", e);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package com.starrocks.connector.spark.sql.schema;
 
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.util.DateTimeUtils;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.Decimal;
@@ -31,6 +32,7 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.function.Function;
 
@@ -79,4 +81,13 @@ public abstract class AbstractRowStringConverter implements RowStringConverter,
 
         throw new RuntimeException(String.format("Can't cast %s, Invalid type %s", data, dataType));
     }
+
+    // Format the values of InternalRow in the same way as convert() does for those of Row
+    protected static String formatDate(int daysSinceEpoch) {
+        return LocalDate.ofEpochDay(daysSinceEpoch).toString();
+    }
+
+    protected static String formatTimestamp(long microsSinceEpoch) {
+        return DateTimeUtils.toJavaTimestamp(microsSinceEpoch).toLocalDateTime().toString();
+    }
 }
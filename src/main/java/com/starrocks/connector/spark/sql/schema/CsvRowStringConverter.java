@@ -20,18 +20,55 @@
 package com.starrocks.connector.spark.sql.schema;
 
 import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.DecimalType;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
 
 public class CsvRowStringConverter extends AbstractRowStringConverter {
 
+    private static final String NULL_VALUE = "\\N";
+
     private final String separator;
 
+    // Compiled from the schema to write an InternalRow directly,
+    // without converting it to Row and dispatching on the type per value
+    private final ColumnWriter[] columnWriters;
+
+    // reused for all rows, and created lazily because it's not needed to serialize
+    private transient StringBuilder builder;
+
     public CsvRowStringConverter(StructType schema, String separator) {
         super(schema);
         this.separator = separator;
+        StructField[] fields = schema.fields();
+        this.columnWriters = new ColumnWriter[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columnWriters[i] = createColumnWriter(fields[i].dataType());
+        }
+    }
+
+    @Override
+    public String fromRow(InternalRow row) {
+        if (builder == null) {
+            builder = new StringBuilder(256);
+        }
+        builder.setLength(0);
+        for (int i = 0; i < columnWriters.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            if (row.isNullAt(i)) {
+                builder.append(NULL_VALUE);
+            } else {
+                columnWriters[i].write(builder, row, i);
+            }
+        }
+        return builder.toString();
     }
 
     @Override
@@ -50,11 +87,55 @@ public class CsvRowStringConverter extends AbstractRowStringConverter {
         StringBuilder sb = new StringBuilder();
         for (int idx = 0; idx < data.length; idx++) {
             Object val = data[idx];
-            sb.append(null == val ? "\\N" : val);
+            sb.append(null == val ? NULL_VALUE : val);
             if (idx < data.length - 1) {
                 sb.append(separator);
             }
         }
         return sb.toString();
     }
+
+    /**
+     * Append the non-null value at the ordinal of the row to the builder.
+     */
+    private interface ColumnWriter extends Serializable {
+        void write(StringBuilder builder, InternalRow row, int ordinal);
+    }
+
+    // The values are written in the same format as convert() does for Row
+    private static ColumnWriter createColumnWriter(DataType dataType) {
+        if (DataTypes.StringType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getUTF8String(ordinal).toString());
+        } else if (DataTypes.BooleanType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getBoolean(ordinal));
+        } else if (DataTypes.DoubleType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getDouble(ordinal));
+        } else if (DataTypes.FloatType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getFloat(ordinal));
+        } else if (DataTypes.ByteType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getByte(ordinal));
+        } else if (DataTypes.IntegerType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getInt(ordinal));
+        } else if (DataTypes.LongType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getLong(ordinal));
+        } else if (DataTypes.ShortType.acceptsType(dataType)) {
+            return (builder, row, ordinal) -> builder.append(row.getShort(ordinal));
+        } else if (DataTypes.DateType.acceptsType(dataType)) {
+            // days since epoch
+            return (builder, row, ordinal) -> builder.append(formatDate(row.getInt(ordinal)));
+        } else if (DataTypes.TimestampType.acceptsType(dataType)) {
+            // microseconds since epoch
+            return (builder, row, ordinal) -> builder.append(formatTimestamp(row.getLong(ordinal)));
+        } else if (dataType instanceof DecimalType) {
+            int precision = ((DecimalType) dataType).precision();
+            int scale = ((DecimalType) dataType).scale();
+            return (builder, row, ordinal) ->
+                    builder.append(row.getDecimal(ordinal, precision, scale).toJavaBigDecimal().toString());
+        }
+
+        return (builder, row, ordinal) -> {
+            throw new RuntimeException(String.format("Can't cast %s, Invalid type %s",
+                    row.get(ordinal, dataType), dataType));
+        };
+    }
 }
@@ -19,13 +19,27 @@
 
 package com.starrocks.connector.spark.sql.schema;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.DecimalType;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.Platform;
+import org.apache.spark.unsafe.types.UTF8String;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,9 +49,61 @@ public class JSONRowStringConverter extends AbstractRowStringConverter {
 
     private final ObjectMapper mapper;
 
+    // Compiled from the schema to write an InternalRow to the generator
+    // directly, without converting it to Row and building a map for it
+    private final SerializedString[] fieldNames;
+    private final boolean[] nullables;
+    private final FieldWriter[] fieldWriters;
+
+    // reused for all rows, and created lazily because they are not serializable
+    private transient ByteArrayOutputStream buffer;
+    private transient JsonGenerator generator;
+
     public JSONRowStringConverter(StructType schema) {
         super(schema);
         this.mapper = new ObjectMapper();
+        StructField[] fields = schema.fields();
+        this.fieldNames = new SerializedString[fields.length];
+        this.nullables = new boolean[fields.length];
+        this.fieldWriters = new FieldWriter[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fieldNames[i] = new SerializedString(fields[i].name());
+            nullables[i] = fields[i].nullable();
+            fieldWriters[i] = createFieldWriter(fields[i].dataType());
+        }
+    }
+
+    @Override
+    public String fromRow(InternalRow row) {
+        try {
+            if (generator == null) {
+                buffer = new ByteArrayOutputStream(256);
+                // rows are written one by one, so no separator is needed between them
+                generator = new JsonFactory().setRootValueSeparator(null)
+                        .createGenerator(buffer, JsonEncoding.UTF8);
+            }
+            buffer.reset();
+            generator.writeStartObject();
+            for (int i = 0; i < fieldWriters.length; i++) {
+                if (row.isNullAt(i)) {
+                    if (!nullables[i]) {
+                        generator.writeFieldName(fieldNames[i]);
+                        generator.writeNull();
+                    }
+                } else {
+                    generator.writeFieldName(fieldNames[i]);
+                    fieldWriters[i].write(generator, row, i);
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            return buffer.toString(StandardCharsets.UTF_8.name());
+        } catch (IOException e) {
+            LOG.error("Failed to serialize row to json, row: {}", row, e);
+            // the generator may be in a bad state, so create a new one for the next row
+            generator = null;
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -61,4 +127,60 @@ public class JSONRowStringConverter extends AbstractRowStringConverter {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Write the non-null value at the ordinal of the row to the generator.
+     */
+    private interface FieldWriter extends Serializable {
+        void write(JsonGenerator generator, InternalRow row, int ordinal) throws IOException;
+    }
+
+    // The values are written in the same format as convert() does for Row
+    private static FieldWriter createFieldWriter(DataType dataType) {
+        if (DataTypes.StringType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> writeUTF8String(generator, row.getUTF8String(ordinal));
+        } else if (DataTypes.BooleanType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeBoolean(row.getBoolean(ordinal));
+        } else if (DataTypes.DoubleType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getDouble(ordinal));
+        } else if (DataTypes.FloatType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getFloat(ordinal));
+        } else if (DataTypes.ByteType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getByte(ordinal));
+        } else if (DataTypes.IntegerType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getInt(ordinal));
+        } else if (DataTypes.LongType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getLong(ordinal));
+        } else if (DataTypes.ShortType.acceptsType(dataType)) {
+            return (generator, row, ordinal) -> generator.writeNumber(row.getShort(ordinal));
+        } else if (DataTypes.DateType.acceptsType(dataType)) {
+            // days since epoch
+            return (generator, row, ordinal) -> generator.writeString(formatDate(row.getInt(ordinal)));
+        } else if (DataTypes.TimestampType.acceptsType(dataType)) {
+            // microseconds since epoch
+            return (generator, row, ordinal) -> generator.writeString(formatTimestamp(row.getLong(ordinal)));
+        } else if (dataType instanceof DecimalType) {
+            int precision = ((DecimalType) dataType).precision();
+            int scale = ((DecimalType) dataType).scale();
+            return (generator, row, ordinal) ->
+                    generator.writeNumber(row.getDecimal(ordinal, precision, scale).toJavaBigDecimal());
+        }
+
+        return (generator, row, ordinal) -> {
+            throw new RuntimeException(String.format("Can't cast %s, Invalid type %s",
+                    row.get(ordinal, dataType), dataType));
+        };
+    }
+
+    // write the bytes of the string without decoding it to a java string
+    private static void writeUTF8String(JsonGenerator generator, UTF8String value) throws IOException {
+        Object base = value.getBaseObject();
+        if (base instanceof byte[]) {
+            int offset = (int) (value.getBaseOffset() - Platform.BYTE_ARRAY_OFFSET);
+            generator.writeUTF8String((byte[]) base, offset, value.numBytes());
+        } else {
+            byte[] bytes = value.getBytes();
+            generator.writeUTF8String(bytes, 0, bytes.length);
+        }
+    }
 }
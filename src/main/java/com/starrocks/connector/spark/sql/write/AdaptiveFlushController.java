@@ -0,0 +1,130 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tunes the number of bytes a write task buffers before flushing, according to the latency of
+ * the stream loads. The size is halved when a load is slower than the target latency, because
+ * the BEs are probably busy and large loads may time out. It grows when the loads are fast, so
+ * fewer transactions are needed. If a load fails because the table has too many versions, the
+ * size is doubled and the next flush is delayed, so that the compaction can catch up.
+ *
+ * <p>A controller is shared by the tasks writing to the same table with the same sizes and
+ * target latency in an executor, so new tasks and retried tasks start from the size learned by
+ * the previous ones.
+ *
+ * <p>There are two trade-offs. To measure the latency, a task waits for its loads to finish when
+ * it flushes, so it doesn't write while the loads run, unlike the flushes triggered by the full
+ * buffer, which load in the background. And the failed load has already failed the task, so the
+ * backoff only delays the flushes of the retried task and the other tasks in the executor.
+ */
+public class AdaptiveFlushController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveFlushController.class);
+
+    private static final Map<String, AdaptiveFlushController> CONTROLLERS = new HashMap<>();
+
+    // grow by a quarter of the current size if the load is fast enough
+    private static final double GROW_FACTOR = 1.25;
+    // a load is considered fast if it's under this fraction of the target latency
+    private static final double FAST_LOAD_RATIO = 0.5;
+    private static final long MAX_BACKOFF_MS = 60000;
+
+    private final long minFlushBytes;
+    private final long maxFlushBytes;
+    private final long targetLatencyMs;
+
+    private long flushBytes;
+    private long backoffMs = 0;
+    private long backoffUntilMs = 0;
+
+    public AdaptiveFlushController(long minFlushBytes, long maxFlushBytes, long targetLatencyMs) {
+        this.minFlushBytes = Math.min(minFlushBytes, maxFlushBytes);
+        this.maxFlushBytes = maxFlushBytes;
+        this.targetLatencyMs = targetLatencyMs;
+        this.flushBytes = this.maxFlushBytes;
+    }
+
+    public static AdaptiveFlushController getOrCreate(String database, String table,
+                                                      long minFlushBytes, long maxFlushBytes, long targetLatencyMs) {
+        synchronized (CONTROLLERS) {
+            String key = String.format("%s.%s/%s/%s/%s",
+                    database, table, minFlushBytes, maxFlushBytes, targetLatencyMs);
+            return CONTROLLERS.computeIfAbsent(key,
+                    key -> new AdaptiveFlushController(minFlushBytes, maxFlushBytes, targetLatencyMs));
+        }
+    }
+
+    public synchronized long getFlushBytes() {
+        return flushBytes;
+    }
+
+    /**
+     * Returns how long to wait before the next flush, which is positive after a load
+     * fails because of too many versions.
+     */
+    public synchronized long getBackoffMs(long nowMs) {
+        return Math.max(0, backoffUntilMs - nowMs);
+    }
+
+    public synchronized void onLoadSuccess(long bytes, long latencyMs) {
+        long oldFlushBytes = flushBytes;
+        if (latencyMs > targetLatencyMs) {
+            flushBytes = Math.max(minFlushBytes, flushBytes / 2);
+        } else if (latencyMs < targetLatencyMs * FAST_LOAD_RATIO && bytes >= flushBytes) {
+            // only grow if the load is full, otherwise it's fast just because it's small
+            flushBytes = Math.min(maxFlushBytes, (long) (flushBytes * GROW_FACTOR));
+        }
+        backoffMs = 0;
+        if (oldFlushBytes != flushBytes) {
+            LOG.info("Change flush bytes from {} to {}, bytes: {}, latency: {}ms, target latency: {}ms",
+                    oldFlushBytes, flushBytes, bytes, latencyMs, targetLatencyMs);
+        }
+    }
+
+    public synchronized void onLoadFailure(Throwable throwable, long nowMs) {
+        long oldFlushBytes = flushBytes;
+        if (isTooManyVersions(throwable)) {
+            flushBytes = Math.min(maxFlushBytes, flushBytes * 2);
+            backoffMs = backoffMs == 0 ? 1000 : Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            backoffUntilMs = nowMs + backoffMs;
+        } else {
+            flushBytes = Math.max(minFlushBytes, flushBytes / 2);
+        }
+        LOG.warn("Change flush bytes from {} to {} after load failure, backoff: {}ms",
+                oldFlushBytes, flushBytes, getBackoffMs(nowMs), throwable);
+    }
+
+    static boolean isTooManyVersions(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && message.toLowerCase().contains("too many versions")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the labels of the transactions that the driver is going to commit for an epoch
+ * of a streaming query. If the driver fails after committing the transactions, but before
+ * Spark records the epoch as committed, the epoch will be replayed after restarting, and
+ * the labels recorded by the previous attempt are used to find out whether the epoch has
+ * been committed. Each epoch is a file named by the epoch id under the log directory.
+ */
+public class EpochCommitLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EpochCommitLog.class);
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final FileSystem fileSystem;
+
+    public EpochCommitLog(String directory, Configuration hadoopConf) throws IOException {
+        this.directory = new Path(directory);
+        this.fileSystem = this.directory.getFileSystem(hadoopConf);
+        if (!fileSystem.exists(this.directory)) {
+            fileSystem.mkdirs(this.directory);
+        }
+    }
+
+    /**
+     * Get the labels recorded for the epoch, or null if there is no record.
+     */
+    public List<TransactionLabel> read(long epochId) throws IOException {
+        Path path = new Path(directory, String.valueOf(epochId));
+        if (!fileSystem.exists(path)) {
+            return null;
+        }
+        List<TransactionLabel> labels = new ArrayList<>();
+        try (FSDataInputStream in = fileSystem.open(path);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] items = line.split("\t");
+                if (items.length != 3) {
+                    throw new IOException(String.format("Invalid record '%s' in %s", line, path));
+                }
+                labels.add(new TransactionLabel(items[0], items[1], items[2]));
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Record the labels of the epoch. The file is written to a temporary path and
+     * renamed, so a failure in the middle won't leave a partial record.
+     */
+    public void write(long epochId, List<TransactionLabel> labels) throws IOException {
+        Path path = new Path(directory, String.valueOf(epochId));
+        Path tmpPath = new Path(directory, epochId + TMP_SUFFIX);
+        try (FSDataOutputStream out = fileSystem.create(tmpPath, true)) {
+            for (TransactionLabel label : labels) {
+                String line = label.getDatabase() + "\t" + label.getTable() + "\t" + label.getLabel() + "\n";
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (fileSystem.exists(path)) {
+            fileSystem.delete(path, false);
+        }
+        if (!fileSystem.rename(tmpPath, path)) {
+            throw new IOException(String.format("Failed to rename %s to %s", tmpPath, path));
+        }
+        LOG.info("Record {} labels for epoch {} in {}", labels.size(), epochId, path);
+    }
+
+    /**
+     * Delete the records of the epochs before the given one.
+     */
+    public void purge(long beforeEpochId) {
+        try {
+            for (FileStatus status : fileSystem.listStatus(directory)) {
+                String name = status.getPath().getName();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    name = name.substring(0, name.length() - TMP_SUFFIX.length());
+                }
+                long epochId;
+                try {
+                    epochId = Long.parseLong(name);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (epochId < beforeEpochId) {
+                    fileSystem.delete(status.getPath(), false);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to purge the records before epoch {} in {}", beforeEpochId, directory, e);
+        }
+    }
+
+    public static class TransactionLabel {
+
+        private final String database;
+        private final String table;
+        private final String label;
+
+        public TransactionLabel(String database, String table, String label) {
+            this.database = database;
+            this.table = table;
+            this.label = label;
+        }
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public String toString() {
+            return database + "." + table + "/" + label;
+        }
+    }
+}
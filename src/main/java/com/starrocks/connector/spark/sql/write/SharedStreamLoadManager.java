@@ -0,0 +1,125 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.data.load.stream.StreamLoadManager;
+import com.starrocks.data.load.stream.v2.StreamLoadManagerV2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A stream load manager shared by the write tasks running concurrently in an executor.
+ * Rows of all tasks are put into the same buffer and loaded in the same transactions,
+ * so the buffer memory and the number of transactions don't grow with the number of
+ * concurrent tasks. The manager is created by the first task writing with a configuration,
+ * and closed when the last of the tasks releases it.
+ *
+ * <p>The manager is thread safe, so the tasks write and flush it without a common lock, and
+ * a task waiting for a flush doesn't block the writes of other tasks.
+ *
+ * <p>The write is at-least-once. Because the rows are mixed, a task can't roll back its rows
+ * when it aborts: the rows already flushed are committed, and the buffered ones are loaded by
+ * the next flush of another task. The loads run in the background, so a failed load fails the
+ * next task that flushes, which may not be the one writing the rows. A retried task writes its
+ * rows again, so the manager is only allowed for a primary key table, which keeps one row of a
+ * key, see {@link StarRocksWriteBuilder}.
+ */
+public class SharedStreamLoadManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedStreamLoadManager.class);
+
+    // managers in this executor, keyed by the options of the write
+    private static final Map<Map<String, String>, SharedStreamLoadManager> MANAGERS = new HashMap<>();
+
+    private final Map<String, String> options;
+    private final StreamLoadManager manager;
+    // rows of each task which has acquired the manager and not released it
+    private final Map<Long, TaskRows> tasks = new ConcurrentHashMap<>();
+
+    private SharedStreamLoadManager(WriteStarRocksConfig config) {
+        this.options = config.getOriginOptions();
+        this.manager = new StreamLoadManagerV2(config.toStreamLoadProperties(), true);
+    }
+
+    public static SharedStreamLoadManager acquire(WriteStarRocksConfig config, long taskId) {
+        synchronized (MANAGERS) {
+            SharedStreamLoadManager sharedManager = MANAGERS.get(config.getOriginOptions());
+            if (sharedManager == null) {
+                sharedManager = new SharedStreamLoadManager(config);
+                sharedManager.manager.init();
+                MANAGERS.put(sharedManager.options, sharedManager);
+                LOG.info("Create shared stream load manager for {}.{}", config.getDatabase(), config.getTable());
+            }
+            sharedManager.tasks.put(taskId, new TaskRows());
+            return sharedManager;
+        }
+    }
+
+    public void write(long taskId, String uniqueKey, String database, String table, String data) {
+        manager.write(uniqueKey, database, table, data);
+        tasks.get(taskId).bufferedRows++;
+    }
+
+    /**
+     * Flush the buffered rows, including the rows of other tasks, so that all rows
+     * written by the task are loaded when it returns.
+     */
+    public void flush(long taskId) {
+        TaskRows rows = tasks.get(taskId);
+        manager.flush();
+        rows.loadedRows += rows.bufferedRows;
+        rows.bufferedRows = 0;
+        LOG.info("Flush shared stream load manager for task: {}, loaded rows of the task: {}, running tasks: {}",
+                taskId, rows.loadedRows, tasks.size());
+    }
+
+    public void abort(long taskId) {
+        TaskRows rows = tasks.get(taskId);
+        if (rows != null && (rows.loadedRows > 0 || rows.bufferedRows > 0)) {
+            LOG.warn("Task {} aborts, but its {} loaded rows and {} buffered rows in the shared stream load " +
+                    "manager can't be rolled back, and are written again if the task is retried",
+                    taskId, rows.loadedRows, rows.bufferedRows);
+        }
+    }
+
+    public void release(long taskId) {
+        synchronized (MANAGERS) {
+            tasks.remove(taskId);
+            if (tasks.isEmpty()) {
+                MANAGERS.remove(options);
+                manager.close();
+                LOG.info("Close shared stream load manager after the release of task {}", taskId);
+            }
+        }
+    }
+
+    // Rows of a task, which are only accessed by the thread of the task
+    private static class TaskRows {
+        // rows written since the last flush of the task, which may have been loaded by other tasks
+        private long bufferedRows;
+        // rows loaded by the flushes of the task
+        private long loadedRows;
+    }
+}
@@ -19,7 +19,9 @@
 
 package com.starrocks.connector.spark.sql.write;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.connector.spark.sql.metric.StarRocksMetrics;
 import com.starrocks.connector.spark.sql.schema.CsvRowStringConverter;
 import com.starrocks.connector.spark.sql.schema.JSONRowStringConverter;
 import com.starrocks.connector.spark.sql.schema.RowStringConverter;
@@ -28,6 +30,7 @@ import com.starrocks.data.load.stream.StreamLoadManager;
 import com.starrocks.data.load.stream.StreamLoadSnapshot;
 import com.starrocks.data.load.stream.v2.StreamLoadManagerV2;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
 import org.apache.spark.sql.connector.write.DataWriter;
 import org.apache.spark.sql.connector.write.WriterCommitMessage;
 import org.apache.spark.sql.types.StructType;
@@ -45,7 +48,24 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
     private final long taskId;
     private final long epochId;
     private final RowStringConverter converter;
+    // the manager owned by this writer, and it's null if the writer uses a shared manager
     private final StreamLoadManager manager;
+    private SharedStreamLoadManager sharedManager;
+    // Keys of the buffers in the manager when there are multiple io threads. Each
+    // buffer is loaded by a separate stream load, so the loads can run concurrently.
+    // It's null if there is only one io thread, and the manager uses the default key
+    private final String[] regionKeys;
+    private int nextRegion = 0;
+    // tunes when to flush according to the load latency. It's null if adaptive flush is disabled
+    private final AdaptiveFlushController flushController;
+    // bytes written since the last flush
+    private long pendingBytes = 0;
+
+    // metrics of the task
+    private long rowsWritten = 0;
+    private long bytesWritten = 0;
+    private long flushCount = 0;
+    private long flushWaitTimeMs = 0;
 
     public StarRocksDataWriter(WriteStarRocksConfig config,
                                StructType schema,
@@ -63,11 +83,40 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
         } else {
             throw new RuntimeException("Unsupported format " + config.getFormat());
         }
-        this.manager = new StreamLoadManagerV2(config.toStreamLoadProperties(), true);
+        this.manager = config.isEnableSharedLoadManager()
+                ? null : new StreamLoadManagerV2(config.toStreamLoadProperties(getLabelPrefix()),
+                        !config.isEnableTwoPhaseCommit());
+        if (config.getIoThreadCount() > 1) {
+            this.regionKeys = new String[config.getIoThreadCount()];
+            for (int i = 0; i < regionKeys.length; i++) {
+                regionKeys[i] = String.format("%s.%s#%s", config.getDatabase(), config.getTable(), i);
+            }
+        } else {
+            this.regionKeys = null;
+        }
+        this.flushController = config.isEnableAdaptiveFlush() && manager != null
+                ? AdaptiveFlushController.getOrCreate(config.getDatabase(), config.getTable(),
+                        config.getAdaptiveFlushMinSize(), config.getBufferSize(),
+                        config.getAdaptiveFlushTargetLatencyMs())
+                : null;
+    }
+
+    // Labels of a streaming write contain the epoch and the partition, so the
+    // transactions of an epoch can be told from those of the replayed one
+    private String getLabelPrefix() {
+        if (epochId < 0) {
+            return config.getLabelPrefix();
+        }
+        String prefix = config.getLabelPrefix() == null ? "spark-" : config.getLabelPrefix();
+        return String.format("%s%s-%s-", prefix, epochId, partitionId);
     }
 
     public void open() {
-        manager.init();
+        if (manager != null) {
+            manager.init();
+        } else {
+            sharedManager = SharedStreamLoadManager.acquire(config, taskId);
+        }
         log.info("Open data writer for partition: {}, task: {}, epoch: {}, {}",
                 partitionId, taskId, epochId, EnvUtils.getGitInformation());
     }
@@ -75,7 +124,19 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
     @Override
     public void write(InternalRow internalRow) throws IOException {
         String data = converter.fromRow(internalRow);
-        manager.write(null, config.getDatabase(), config.getTable(), data);
+        if (manager != null) {
+            manager.write(nextRegionKey(), config.getDatabase(), config.getTable(), data);
+        } else {
+            sharedManager.write(taskId, nextRegionKey(), config.getDatabase(), config.getTable(), data);
+        }
+        // one more byte for the row delimiter
+        int bytes = utf8Length(data) + 1;
+        pendingBytes += bytes;
+        bytesWritten += bytes;
+        rowsWritten++;
+        if (flushController != null && pendingBytes >= flushController.getFlushBytes()) {
+            flush();
+        }
 
         log.debug("partitionId: {}, taskId: {}, epochId: {}, receive raw row: {}",
                 partitionId, taskId, epochId, internalRow);
@@ -83,12 +144,84 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
                 partitionId, taskId, epochId, data);
     }
 
+    private void flush() throws IOException {
+        long backoffMs = flushController == null ? 0 : flushController.getBackoffMs(System.currentTimeMillis());
+        if (backoffMs > 0) {
+            log.info("partitionId: {}, taskId: {}, epochId: {} wait {}ms before flush",
+                    partitionId, taskId, epochId, backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting to flush", e);
+            }
+        }
+        long startTime = System.nanoTime();
+        try {
+            if (manager != null) {
+                manager.flush();
+            } else {
+                sharedManager.flush(taskId);
+            }
+        } catch (RuntimeException e) {
+            if (flushController != null) {
+                flushController.onLoadFailure(e, System.currentTimeMillis());
+            }
+            throw e;
+        }
+        long latencyMs = (System.nanoTime() - startTime) / 1000000;
+        flushCount++;
+        flushWaitTimeMs += latencyMs;
+        if (flushController != null) {
+            flushController.onLoadSuccess(pendingBytes, latencyMs);
+        }
+        log.debug("partitionId: {}, taskId: {}, epochId: {} flush {} bytes in {}ms",
+                partitionId, taskId, epochId, pendingBytes, latencyMs);
+        pendingBytes = 0;
+    }
+
+    // Length of the row encoded in UTF-8 as it's loaded, without encoding it again. A pair of
+    // surrogates is 4 bytes, and other characters are 1 to 3 bytes
+    @VisibleForTesting
+    static int utf8Length(String data) {
+        int length = data.length();
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c >= 0x800) {
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    private String nextRegionKey() {
+        if (regionKeys == null) {
+            return null;
+        }
+        String key = regionKeys[nextRegion];
+        nextRegion = (nextRegion + 1) % regionKeys.length;
+        return key;
+    }
+
     @Override
     public WriterCommitMessage commit() throws IOException {
         log.info("partitionId: {}, taskId: {}, epochId: {} commit", partitionId, taskId, epochId);
         try {
-            manager.flush();
-            return new StarRocksWriterCommitMessage(partitionId, taskId, epochId, null);
+            flush();
+            if (manager == null || !config.isEnableTwoPhaseCommit()) {
+                return new StarRocksWriterCommitMessage(partitionId, taskId, epochId, null);
+            }
+
+            // only prepare the transactions, and the driver will commit them
+            StreamLoadSnapshot snapshot = manager.snapshot();
+            if (!manager.prepare(snapshot)) {
+                throw new IOException("Failed to prepare transactions");
+            }
+            log.info("partitionId: {}, taskId: {}, epochId: {} prepare transactions: {}",
+                    partitionId, taskId, epochId, snapshot.getTransactions().size());
+            return new StarRocksWriterCommitMessage(partitionId, taskId, epochId, snapshot);
         } catch (Exception e) {
             String errMsg = String.format("Failed to commit, partitionId: %s, taskId: %s, epochId: %s",
                     partitionId, taskId, epochId);
@@ -100,6 +233,12 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
     @Override
     public void abort() throws IOException {
         log.info("partitionId: {}, taskId: {}, epochId: {} abort", partitionId, taskId, epochId);
+        if (manager == null) {
+            if (sharedManager != null) {
+                sharedManager.abort(taskId);
+            }
+            return;
+        }
         StreamLoadSnapshot snapshot = manager.snapshot();
         try {
             boolean success = manager.abort(snapshot);;
@@ -115,9 +254,24 @@ public class StarRocksDataWriter implements DataWriter<InternalRow>, Serializabl
         }
     }
 
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        return new CustomTaskMetric[] {
+                StarRocksMetrics.taskMetric(StarRocksMetrics.ROWS_WRITTEN, rowsWritten),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.BYTES_WRITTEN, bytesWritten),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.FLUSH_COUNT, flushCount),
+                StarRocksMetrics.taskMetric(StarRocksMetrics.FLUSH_WAIT_TIME, flushWaitTimeMs)
+        };
+    }
+
     @Override
     public void close() throws IOException {
         log.info("partitionId: {}, taskId: {}, epochId: {} close", partitionId, taskId, epochId);
-        manager.close();
+        if (manager != null) {
+            manager.close();
+        } else if (sharedManager != null) {
+            sharedManager.release(taskId);
+            sharedManager = null;
+        }
     }
 }
@@ -20,6 +20,12 @@
 package com.starrocks.connector.spark.sql.write;
 
 import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.connector.spark.sql.connect.TransactionLabelClient;
+import com.starrocks.connector.spark.sql.write.EpochCommitLog.TransactionLabel;
+import com.starrocks.data.load.stream.StreamLoadManager;
+import com.starrocks.data.load.stream.StreamLoadSnapshot;
+import com.starrocks.data.load.stream.v2.StreamLoadManagerV2;
+import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.connector.write.BatchWrite;
 import org.apache.spark.sql.connector.write.DataWriterFactory;
 import org.apache.spark.sql.connector.write.LogicalWriteInfo;
@@ -30,12 +36,23 @@ import org.apache.spark.sql.connector.write.streaming.StreamingWrite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 public class StarRocksWrite implements BatchWrite, StreamingWrite {
 
     private static final Logger log = LoggerFactory.getLogger(StarRocksWrite.class);
 
+    // number of epochs whose labels are kept in the epoch commit log
+    private static final int RETAINED_EPOCHS = 100;
+    private static final String SQL_CHECKPOINT_LOCATION = "spark.sql.streaming.checkpointLocation";
+
     private final LogicalWriteInfo logicalInfo;
     private final WriteStarRocksConfig config;
+    // manager to commit or abort the prepared transactions, which is shared by a commit and the
+    // abort following it if the commit fails, and closed when either of them finishes
+    private StreamLoadManager transactionManager;
 
     public StarRocksWrite(LogicalWriteInfo logicalInfo, WriteStarRocksConfig config) {
         this.logicalInfo = logicalInfo;
@@ -50,25 +67,212 @@ public class StarRocksWrite implements BatchWrite, StreamingWrite {
     @Override
     public void commit(WriterCommitMessage[] messages) {
         log.info("batch query `{}` commit", logicalInfo.queryId());
+        if (config.isEnableTwoPhaseCommit()) {
+            commitTransactions(messages);
+            closeTransactionManager();
+        }
     }
 
     @Override
     public void abort(WriterCommitMessage[] messages) {
         log.info("batch query `{}` abort", logicalInfo.queryId());
+        if (config.isEnableTwoPhaseCommit()) {
+            try {
+                abortTransactions(messages);
+            } finally {
+                closeTransactionManager();
+            }
+        }
     }
 
     @Override
     public StreamingDataWriterFactory createStreamingWriterFactory(PhysicalWriteInfo info) {
+        if (config.isEnableTwoPhaseCommit() && getEpochLogDir() == null) {
+            // without the log, an epoch replayed after the driver restarts would be written again
+            String errMsg = String.format("Streaming query `%s` with two-phase commit requires a directory to " +
+                    "record the committed epochs. Set the checkpoint location of the query, or %s",
+                    logicalInfo.queryId(), SQL_CHECKPOINT_LOCATION);
+            log.error(errMsg);
+            throw new IllegalStateException(errMsg);
+        }
         return new StarRocksWriterFactory(logicalInfo.schema(), config);
     }
 
     @Override
     public void commit(long epochId, WriterCommitMessage[] messages) {
-        log.info("streaming query `{}` commit", logicalInfo.queryId());
+        log.info("streaming query `{}` commit epoch {}", logicalInfo.queryId(), epochId);
+        if (!config.isEnableTwoPhaseCommit()) {
+            return;
+        }
+
+        EpochCommitLog commitLog = openEpochCommitLog();
+        try {
+            List<TransactionLabel> previousLabels = commitLog.read(epochId);
+            if (previousLabels != null && recoverEpoch(epochId, previousLabels)) {
+                log.info("Epoch {} of streaming query `{}` has been committed, and skip the replayed one",
+                        epochId, logicalInfo.queryId());
+                abortTransactions(messages);
+                closeTransactionManager();
+                return;
+            }
+            commitLog.write(epochId, getLabels(messages));
+        } catch (IOException e) {
+            String errMsg = String.format("Failed to check the commit log of epoch %s for streaming query `%s`",
+                    epochId, logicalInfo.queryId());
+            log.error(errMsg, e);
+            throw new RuntimeException(errMsg, e);
+        }
+        commitTransactions(messages);
+        closeTransactionManager();
+        commitLog.purge(epochId - RETAINED_EPOCHS);
     }
 
     @Override
     public void abort(long epochId, WriterCommitMessage[] messages) {
-        log.info("streaming query `{}` abort", logicalInfo.queryId());
+        log.info("streaming query `{}` abort epoch {}", logicalInfo.queryId(), epochId);
+        if (config.isEnableTwoPhaseCommit()) {
+            try {
+                abortTransactions(messages);
+            } finally {
+                closeTransactionManager();
+            }
+        }
+    }
+
+    // Commit the transactions prepared by the tasks after all of them succeed. StarRocks commits
+    // each transaction separately, so the data doesn't become visible atomically: if a commit
+    // fails, the transactions committed before it stay visible, and the following abort only
+    // rolls back those not committed yet
+    private void commitTransactions(WriterCommitMessage[] messages) {
+        StreamLoadManager manager = getTransactionManager();
+        for (WriterCommitMessage message : messages) {
+            StreamLoadSnapshot snapshot = getSnapshot(message);
+            if (snapshot == null) {
+                continue;
+            }
+            if (!manager.commit(snapshot)) {
+                String errMsg = String.format("Failed to commit transactions of %s for query `%s`",
+                        message, logicalInfo.queryId());
+                log.error(errMsg);
+                throw new RuntimeException(errMsg);
+            }
+            log.info("Commit transactions of {} for query `{}`", message, logicalInfo.queryId());
+        }
+    }
+
+    private void abortTransactions(WriterCommitMessage[] messages) {
+        StreamLoadManager manager = getTransactionManager();
+        for (WriterCommitMessage message : messages) {
+            StreamLoadSnapshot snapshot = getSnapshot(message);
+            if (snapshot == null) {
+                continue;
+            }
+            // try to abort all transactions even if some of them fail, and the
+            // transactions not aborted will be aborted by StarRocks after timeout
+            try {
+                if (!manager.abort(snapshot)) {
+                    log.warn("Failed to abort transactions of {} for query `{}`",
+                            message, logicalInfo.queryId());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to abort transactions of {} for query `{}`",
+                        message, logicalInfo.queryId(), e);
+            }
+        }
+    }
+
+    private StreamLoadManager getTransactionManager() {
+        if (transactionManager == null) {
+            transactionManager = new StreamLoadManagerV2(config.toStreamLoadProperties(), false);
+            transactionManager.init();
+        }
+        return transactionManager;
+    }
+
+    private void closeTransactionManager() {
+        if (transactionManager != null) {
+            transactionManager.close();
+            transactionManager = null;
+        }
+    }
+
+    // Finish the transactions recorded by a previous attempt of the epoch. Returns true if the
+    // epoch has been committed, and the remaining prepared transactions are committed as well.
+    // Otherwise, the prepared transactions are rolled back and the epoch should be committed again
+    private boolean recoverEpoch(long epochId, List<TransactionLabel> labels) throws IOException {
+        TransactionLabelClient client = new TransactionLabelClient(config);
+        List<TransactionLabel> prepared = new ArrayList<>();
+        boolean committed = false;
+        for (TransactionLabel label : labels) {
+            String state = client.getLabelState(label.getDatabase(), label.getLabel());
+            log.info("State of {} in epoch {} is {}", label, epochId, state);
+            if (TransactionLabelClient.STATE_VISIBLE.equalsIgnoreCase(state)
+                    || TransactionLabelClient.STATE_COMMITTED.equalsIgnoreCase(state)) {
+                committed = true;
+            } else if (TransactionLabelClient.STATE_PREPARED.equalsIgnoreCase(state)) {
+                prepared.add(label);
+            }
+        }
+
+        for (TransactionLabel label : prepared) {
+            if (committed) {
+                if (!client.commit(label.getDatabase(), label.getTable(), label.getLabel())) {
+                    throw new IOException("Failed to commit the transaction " + label);
+                }
+            } else if (!client.rollback(label.getDatabase(), label.getTable(), label.getLabel())) {
+                // the transaction will be aborted by StarRocks after timeout
+                log.warn("Failed to roll back the transaction {} in epoch {}", label, epochId);
+            }
+        }
+        return committed;
+    }
+
+    private EpochCommitLog openEpochCommitLog() {
+        String epochLogDir = getEpochLogDir();
+        try {
+            return new EpochCommitLog(epochLogDir, SparkSession.active().sparkContext().hadoopConfiguration());
+        } catch (IOException e) {
+            String errMsg = "Failed to open the epoch commit log in " + epochLogDir;
+            log.error(errMsg, e);
+            throw new RuntimeException(errMsg, e);
+        }
+    }
+
+    // The directory set by the options, or one under the default checkpoint location of the session.
+    // The checkpoint of a query under the default location is named by the query name or a random id,
+    // neither of which is known here, so the log is named by the query id, which is kept in the
+    // checkpoint and stays the same after the query restarts from it
+    private String getEpochLogDir() {
+        if (config.getEpochLogDir() != null) {
+            return config.getEpochLogDir();
+        }
+        String checkpointLocation = SparkSession.active().conf().get(SQL_CHECKPOINT_LOCATION, null);
+        if (checkpointLocation == null || checkpointLocation.isEmpty()) {
+            return null;
+        }
+        return checkpointLocation + "/starrocks-epochs/" + logicalInfo.queryId();
+    }
+
+    private static List<TransactionLabel> getLabels(WriterCommitMessage[] messages) {
+        List<TransactionLabel> labels = new ArrayList<>();
+        for (WriterCommitMessage message : messages) {
+            StreamLoadSnapshot snapshot = getSnapshot(message);
+            if (snapshot == null) {
+                continue;
+            }
+            for (StreamLoadSnapshot.Transaction transaction : snapshot.getTransactions()) {
+                labels.add(new TransactionLabel(
+                        transaction.getDatabase(), transaction.getTable(), transaction.getLabel()));
+            }
+        }
+        return labels;
+    }
+
+    private static StreamLoadSnapshot getSnapshot(WriterCommitMessage message) {
+        // the message is null if the task failed
+        if (!(message instanceof StarRocksWriterCommitMessage)) {
+            return null;
+        }
+        return ((StarRocksWriterCommitMessage) message).getSnapshot();
     }
 }
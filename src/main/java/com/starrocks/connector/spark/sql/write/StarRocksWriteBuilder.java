@@ -20,6 +20,9 @@
 package com.starrocks.connector.spark.sql.write;
 
 import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.connector.spark.sql.connect.StarRocksConnector;
+import com.starrocks.connector.spark.sql.metric.StarRocksMetrics;
+import org.apache.spark.sql.connector.metric.CustomMetric;
 import org.apache.spark.sql.connector.distributions.Distribution;
 import org.apache.spark.sql.connector.distributions.Distributions;
 import org.apache.spark.sql.connector.expressions.Expression;
@@ -43,9 +46,24 @@ public class StarRocksWriteBuilder implements WriteBuilder {
 
     @Override
     public Write build() {
+        if (config.isEnableSharedLoadManager()) {
+            checkPrimaryKeyTable();
+        }
         return new StarRocksWriteImpl(info, config);
     }
 
+    // Rows of a failed task can't be rolled back from a shared stream load manager, and are
+    // written again when the task is retried, which only keeps one copy of the rows in a
+    // primary key table
+    private void checkPrimaryKeyTable() {
+        String tableModel = StarRocksConnector.getTableConfig(config).get("TABLE_MODEL");
+        if (!"PRI_KEYS".equalsIgnoreCase(tableModel) && !"PRIMARY_KEYS".equalsIgnoreCase(tableModel)) {
+            throw new RuntimeException(String.format("starrocks.write.enable.shared-load-manager is only " +
+                    "supported for a primary key table, but %s.%s is %s",
+                    config.getDatabase(), config.getTable(), tableModel));
+        }
+    }
+
     private static class StarRocksWriteImpl implements Write, RequiresDistributionAndOrdering {
 
         private final LogicalWriteInfo info;
@@ -71,6 +89,11 @@ public class StarRocksWriteBuilder implements WriteBuilder {
             return new StarRocksWrite(info, config);
         }
 
+        @Override
+        public CustomMetric[] supportedCustomMetrics() {
+            return StarRocksMetrics.writeMetrics();
+        }
+
         @Override
         public int requiredNumPartitions() {
             return config.getNumPartitions();
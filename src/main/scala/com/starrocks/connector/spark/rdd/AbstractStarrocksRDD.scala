@@ -23,7 +23,7 @@ import scala.collection.JavaConversions._
 import scala.reflect.ClassTag
 
 import com.starrocks.connector.spark.cfg.SparkSettings
-import com.starrocks.connector.spark.rest.{PartitionDefinition, RestService}
+import com.starrocks.connector.spark.rest.{BackendLocality, PartitionDefinition, RestService}
 
 import org.apache.spark.rdd.RDD
 import org.apache.spark.{Partition, SparkContext}
@@ -41,7 +41,8 @@ private[spark] abstract class AbstractStarrocksRDD[T: ClassTag](
 
   override def getPreferredLocations(split: Partition): Seq[String] = {
     val starrocksSplit = split.asInstanceOf[StarrocksPartition]
-    Seq(starrocksSplit.starrocksPartition.getBeAddress)
+    // Spark matches the locations with the hosts of executors, which are without ports
+    Seq(BackendLocality.executorHost(starrocksSplit.starrocksPartition.getBeAddress, hostMapping))
   }
 
   override def checkpoint(): Unit = {
@@ -56,8 +57,10 @@ private[spark] abstract class AbstractStarrocksRDD[T: ClassTag](
     cfg.merge(params)
   }
 
+  @transient private lazy val hostMapping = BackendLocality.parseHostMapping(starrocksCfg)
+
   @transient private[spark] lazy val starrocksPartitions = {
-    RestService.findPartitions(starrocksCfg, log)
+    PartitionDefinition.broadcastContext(sc, RestService.findPartitions(starrocksCfg, log))
   }
 }
 
@@ -19,22 +19,22 @@
 
 package com.starrocks.connector.spark.rdd
 
-import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicLong}
 import java.util.concurrent._
 
 import scala.collection.JavaConversions._
 import scala.util.Try
-import com.starrocks.connector.spark.backend.BackendClient
+import com.starrocks.connector.spark.backend.{BackendClient, BatchSizeTuner}
 import com.starrocks.connector.spark.cfg.ConfigurationOptions._
 import com.starrocks.connector.spark.cfg.Settings
 import com.starrocks.connector.spark.exception.ShouldNeverHappenException
 import com.starrocks.connector.spark.rest.PartitionDefinition
 import com.starrocks.connector.spark.rest.models.Schema
-import com.starrocks.connector.spark.serialization.{Routing, RowBatch}
+import com.starrocks.connector.spark.serialization.{ArrowColumnReader, Routing, RowBatch}
 import com.starrocks.connector.spark.sql.SchemaUtils
 import com.starrocks.connector.spark.util.ErrorMessages
 import com.starrocks.connector.spark.util.ErrorMessages.SHOULD_NOT_HAPPEN_MESSAGE
-import com.starrocks.thrift.{TScanCloseParams, TScanNextBatchParams, TScanOpenParams, TScanOpenResult}
+import com.starrocks.thrift.{TScanBatchResult, TScanCloseParams, TScanNextBatchParams, TScanOpenParams, TScanOpenResult}
 import org.apache.log4j.Logger
 
 import scala.util.control.Breaks
@@ -51,6 +51,12 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
   protected var offset = 0
   protected var eos: AtomicBoolean = new AtomicBoolean(false)
   protected var rowBatch: RowBatch = _
+
+  // metrics of the scan, which may be updated by the async thread
+  val bytesRead = new AtomicLong(0)
+  val batchesRead = new AtomicLong(0)
+  val scanTimeNs = new AtomicLong(0)
+  val decodeTimeNs = new AtomicLong(0)
   // flag indicate if support deserialize Arrow to RowBatch asynchronously
   protected var deserializeArrowToRowBatchAsync: Boolean = Try {
     settings.getProperty(STARROCKS_DESERIALIZE_ARROW_ASYNC, STARROCKS_DESERIALIZE_ARROW_ASYNC_DEFAULT.toString).toBoolean
@@ -74,6 +80,8 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
     queue
   }
 
+  private val autoBatchSize = BatchSizeTuner.isAuto(settings)
+
   private val openParams: TScanOpenParams = {
     val params = new TScanOpenParams
     params.cluster = STARROCKS_DEFAULT_CLUSTER
@@ -84,7 +92,9 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
     params.opaqued_query_plan = partition.getQueryPlan
 
     // max row number of one read batch
-    val batchSize = Try {
+    val batchSize = if (autoBatchSize) {
+      BatchSizeTuner.batchSize(partition.getDatabase, partition.getTable, settings)
+    } else Try {
       settings.getProperty(STARROCKS_BATCH_SIZE, STARROCKS_BATCH_SIZE_DEFAULT.toString).toInt
     } getOrElse {
         logger.warn(ErrorMessages.PARSE_NUMBER_FAILED_MESSAGE, STARROCKS_BATCH_SIZE, settings.getProperty(STARROCKS_BATCH_SIZE))
@@ -128,7 +138,9 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
   protected val openResult: TScanOpenResult = client.openScanner(openParams)
   protected val contextId: String = openResult.getContext_id
   protected val schema: Schema =
-    SchemaUtils.convertToSchema(openResult.getSelected_columns)
+    closeOnFailure(SchemaUtils.convertToSchema(openResult.getSelected_columns))
+  // readers of the columns shared by all batches of the scan, which are decoded by one thread
+  private val columnReaders = new Array[ArrowColumnReader](schema.size)
 
   protected val asyncThread: Thread = new Thread {
     override def run {
@@ -136,10 +148,10 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
       nextBatchParams.setContext_id(contextId)
       while (!eos.get) {
         nextBatchParams.setOffset(offset)
-        val nextResult = client.getNext(nextBatchParams)
+        val nextResult = getNext(nextBatchParams)
         eos.set(nextResult.isEos)
         if (!eos.get) {
-          val rowBatch = new RowBatch(nextResult, schema)
+          val rowBatch = decode(nextResult)
           offset += rowBatch.getReadRowCount
           rowBatch.close
           rowBatchBlockingQueue.put(rowBatch)
@@ -148,7 +160,7 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
     }
   }
 
-  protected val asyncThreadStarted: Boolean = {
+  protected val asyncThreadStarted: Boolean = closeOnFailure {
     var started = false
     if (deserializeArrowToRowBatchAsync) {
       asyncThread.start
@@ -159,6 +171,28 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
 
   logger.debug(s"Open scan result is, contextId: $contextId, schema: $schema.")
 
+  protected def getNext(nextBatchParams: TScanNextBatchParams): TScanBatchResult = {
+    val start = System.nanoTime
+    val nextResult = client.getNext(nextBatchParams)
+    scanTimeNs.addAndGet(System.nanoTime - start)
+    if (!nextResult.isEos && nextResult.getRows != null) {
+      bytesRead.addAndGet(nextResult.getRows.length)
+      batchesRead.incrementAndGet
+    }
+    nextResult
+  }
+
+  protected def decode(nextResult: TScanBatchResult): RowBatch = {
+    val start = System.nanoTime
+    val batch = new RowBatch(nextResult, schema, columnReaders)
+    decodeTimeNs.addAndGet(System.nanoTime - start)
+    if (autoBatchSize) {
+      BatchSizeTuner.observe(partition.getDatabase, partition.getTable, settings,
+        nextResult.getRows.length, batch.getReadRowCount)
+    }
+    batch
+  }
+
   /**
    * read data and cached in rowBatch.
    * @return true if hax next value
@@ -194,10 +228,10 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
         val nextBatchParams = new TScanNextBatchParams
         nextBatchParams.setContext_id(contextId)
         nextBatchParams.setOffset(offset)
-        val nextResult = client.getNext(nextBatchParams)
+        val nextResult = getNext(nextBatchParams)
         eos.set(nextResult.isEos)
         if (!eos.get) {
-          rowBatch = new RowBatch(nextResult, schema)
+          rowBatch = decode(nextResult)
         }
       }
       hasNext = !eos.get
@@ -217,6 +251,21 @@ class ScalaValueReader(partition: PartitionDefinition, settings: Settings) {
     rowBatch.next
   }
 
+  /**
+   * close the opened scanner if the reader fails to be created, so that the permit of the scan on
+   * the BE is released.
+   * @param body the initialization after opening the scanner
+   */
+  protected def closeOnFailure[T](body: => T): T = {
+    try {
+      body
+    } catch {
+      case e: Throwable =>
+        Try(close())
+        throw e
+    }
+  }
+
   def close(): Unit = {
     val closeParams = new TScanCloseParams
     closeParams.context_id = contextId
@@ -0,0 +1,141 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql
+
+import java.time.LocalDate
+import java.util.TimeZone
+
+import org.apache.spark.sql.catalyst.expressions._
+import org.apache.spark.sql.catalyst.util.DateTimeUtils
+import org.apache.spark.sql.jdbc.JdbcDialects
+import org.apache.spark.sql.types._
+
+/**
+ * Translate Spark expressions to StarRocks SQL. Only an allow-list of expressions, which are
+ * evaluated by StarRocks in the same way as by Spark, is translated.
+ */
+private[sql] object ExpressionTranslator {
+
+  private val dialect = JdbcDialects.get("")
+
+  // units of date_trunc with the same names in Spark and StarRocks
+  private val truncUnits = Set("YEAR", "QUARTER", "MONTH", "WEEK", "DAY", "HOUR", "MINUTE", "SECOND")
+
+  private val integralTypes: Seq[DataType] = Seq(ByteType, ShortType, IntegerType, LongType)
+
+  /**
+   * translate an expression to StarRocks SQL.
+   * @param expression expression to translate
+   * @return the SQL, or None if the expression or any of its children is not allowed
+   */
+  def translate(expression: Expression): Option[String] = Option(compile(expression))
+
+  private def compile(expression: Expression): String = expression match {
+    case attribute: AttributeReference => Utils.quote(attribute.name)
+    case literal: Literal => compileLiteral(literal)
+
+    case EqualTo(left, right) => compileBinary(left, "=", right)
+    case EqualNullSafe(left, right) => compileBinary(left, "<=>", right)
+    case GreaterThan(left, right) => compileBinary(left, ">", right)
+    case GreaterThanOrEqual(left, right) => compileBinary(left, ">=", right)
+    case LessThan(left, right) => compileBinary(left, "<", right)
+    case LessThanOrEqual(left, right) => compileBinary(left, "<=", right)
+    case And(left, right) => compileBinary(left, "and", right)
+    case Or(left, right) => compileBinary(left, "or", right)
+    case Not(child) => compileFunction("not", child)
+    case IsNull(child) => Option(compile(child)).map(c => s"$c is null").orNull
+    case IsNotNull(child) => Option(compile(child)).map(c => s"$c is not null").orNull
+    case In(value, list) if list.nonEmpty && list.forall(_.isInstanceOf[Literal]) =>
+      val compiled = (value +: list).map(compile)
+      if (compiled.contains(null)) null else s"${compiled.head} in (${compiled.tail.mkString(", ")})"
+
+    // only the arithmetic of doubles is the same. That of integers wraps around on overflow in
+    // Spark unless ANSI mode is enabled, but is widened by StarRocks, that of floats is done in
+    // double by StarRocks, and the precision and scale of decimal results differ
+    case add: Add if add.dataType == DoubleType => compileBinary(add.left, "+", add.right)
+    case subtract: Subtract if subtract.dataType == DoubleType => compileBinary(subtract.left, "-", subtract.right)
+    case multiply: Multiply if multiply.dataType == DoubleType => compileBinary(multiply.left, "*", multiply.right)
+
+    case cast: Cast => compileCast(cast)
+    case trunc: TruncTimestamp if trunc.format.foldable && isDefaultTimeZone(trunc.timeZoneId) =>
+      Option(trunc.format.eval()).map(_.toString.toUpperCase)
+        .filter(truncUnits.contains)
+        .flatMap(unit => Option(compile(trunc.timestamp)).map(t => s"date_trunc('${unit.toLowerCase}', $t)"))
+        .orNull
+    case Year(child) => compileFunction("year", child)
+    case Quarter(child) => compileFunction("quarter", child)
+    case Month(child) => compileFunction("month", child)
+    case DayOfMonth(child) => compileFunction("day", child)
+    case Length(child) if child.dataType == StringType => compileFunction("char_length", child)
+    case _ => null
+  }
+
+  private def compileLiteral(literal: Literal): String = (literal.value, literal.dataType) match {
+    case (null, _) => "NULL"
+    case (v, StringType) => dialect.compileValue(v.toString).toString
+    case (v: Float, FloatType) if v.isNaN || v.isInfinite => null
+    case (v: Double, DoubleType) if v.isNaN || v.isInfinite => null
+    case (v, BooleanType | ByteType | ShortType | IntegerType | LongType | FloatType | DoubleType) => v.toString
+    case (v: Decimal, _: DecimalType) => v.toJavaBigDecimal.toPlainString
+    case (v: Int, DateType) => s"'${LocalDate.ofEpochDay(v)}'"
+    // timestamps are converted to StarRocks datetime in the default time zone of JVM when read
+    case (v: Long, TimestampType) => dialect.compileValue(DateTimeUtils.toJavaTimestamp(v)).toString
+    case _ => null
+  }
+
+  private def compileCast(cast: Cast): String = (cast.child.dataType, cast.dataType) match {
+    case (from, to) if from == to => compile(cast.child)
+    case (TimestampType, DateType) if isDefaultTimeZone(cast.timeZoneId) =>
+      Option(compile(cast.child)).map(c => s"cast($c as DATE)").orNull
+    case (from, to) if integralTypes.contains(from) && integralTypes.indexOf(from) < integralTypes.indexOf(to) =>
+      Option(compile(cast.child)).map(c => s"cast($c as ${integralTypeName(to)})").orNull
+    case (ByteType | ShortType | IntegerType | LongType | FloatType, DoubleType) =>
+      Option(compile(cast.child)).map(c => s"cast($c as DOUBLE)").orNull
+    case _ => null
+  }
+
+  private def integralTypeName(dataType: DataType): String = dataType match {
+    case ShortType => "SMALLINT"
+    case IntegerType => "INT"
+    case LongType => "BIGINT"
+  }
+
+  private def compileBinary(left: Expression, operator: String, right: Expression): String = {
+    val compiledLeft = compileOperand(left)
+    val compiledRight = compileOperand(right)
+    if (compiledLeft == null || compiledRight == null) null else s"$compiledLeft $operator $compiledRight"
+  }
+
+  private def compileOperand(operand: Expression): String = operand match {
+    case _: BinaryOperator | _: Not | _: IsNull | _: IsNotNull | _: In =>
+      Option(compile(operand)).map(c => s"($c)").orNull
+    case _ => compile(operand)
+  }
+
+  private def compileFunction(function: String, child: Expression): String = {
+    Option(compile(child)).map(c => s"$function($c)").orNull
+  }
+
+  // Spark converts between timestamps and dates in the session time zone, and StarRocks in
+  // the default time zone of JVM in which the datetime values are read
+  private def isDefaultTimeZone(timeZoneId: Option[String]): Boolean = {
+    timeZoneId.forall(id => TimeZone.getTimeZone(id).getID == TimeZone.getDefault.getID)
+  }
+}
@@ -35,7 +35,7 @@ class ScalaStarrocksRowValueReader(
   settings: Settings)
   extends ScalaValueReader(partition, settings) with Logging {
 
-  val rowOrder: Seq[String] = settings.getProperty(STARROCKS_READ_FIELD).split(",")
+  val rowOrder: Seq[String] = closeOnFailure(settings.getProperty(STARROCKS_READ_FIELD).split(","))
 
   override def next: AnyRef = {
     if (!hasNext) {
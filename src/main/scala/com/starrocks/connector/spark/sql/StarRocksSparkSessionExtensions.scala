@@ -0,0 +1,69 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql
+
+import com.starrocks.connector.spark.sql.read.StarRocksScanBuilder
+import org.apache.spark.sql.SparkSessionExtensions
+import org.apache.spark.sql.catalyst.expressions.{PredicateHelper, SubqueryExpression}
+import org.apache.spark.sql.catalyst.plans.logical.{Filter, LogicalPlan}
+import org.apache.spark.sql.catalyst.rules.Rule
+import org.apache.spark.sql.execution.datasources.DataSourceStrategy
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation
+import org.apache.spark.sql.util.CaseInsensitiveStringMap
+
+/**
+ * Extensions of Spark session for StarRocks, which are enabled by setting spark.sql.extensions
+ * to this class.
+ */
+class StarRocksSparkSessionExtensions extends (SparkSessionExtensions => Unit) {
+  override def apply(extensions: SparkSessionExtensions): Unit = {
+    extensions.injectOptimizerRule(_ => PushDownStarRocksExpressions)
+  }
+}
+
+/**
+ * Push the filters on StarRocks tables read with the DataSource V2 API which can't be
+ * translated to data source filters, such as `to_date(ts) = '2024-01-01'` or `k + 1 > 5`,
+ * into the query plan of StarRocks, so StarRocks can prune partitions and tablets by them.
+ * The filters are still evaluated by Spark, and they are passed to the scan builder in the
+ * options of the relation.
+ */
+object PushDownStarRocksExpressions extends Rule[LogicalPlan] with PredicateHelper {
+
+  override def apply(plan: LogicalPlan): LogicalPlan = plan transform {
+    case filter @ Filter(condition, relation: DataSourceV2Relation) if relation.table.isInstanceOf[StarRocksTable] =>
+      val pushedExpressions = splitConjunctivePredicates(condition)
+        .filter(p => p.deterministic && !SubqueryExpression.hasSubquery(p))
+        .filter(p => DataSourceStrategy.translateFilter(p, supportNestedPredicatePushdown = true).isEmpty)
+        .flatMap(ExpressionTranslator.translate)
+        .map(p => s"($p)")
+        .mkString(" and ")
+      val options = relation.options.asCaseSensitiveMap()
+      if (pushedExpressions.isEmpty ||
+        pushedExpressions == options.get(StarRocksScanBuilder.PUSHED_EXPRESSIONS_OPTION)) {
+        filter
+      } else {
+        val newOptions = new java.util.HashMap[String, String](options)
+        newOptions.put(StarRocksScanBuilder.PUSHED_EXPRESSIONS_OPTION, pushedExpressions)
+        logInfo(s"Push expressions $pushedExpressions to ${relation.table.name()}")
+        filter.copy(child = relation.copy(options = new CaseInsensitiveStringMap(newOptions)))
+      }
+  }
+}
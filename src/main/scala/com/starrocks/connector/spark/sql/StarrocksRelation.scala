@@ -86,6 +86,14 @@ private[sql] class StarrocksRelation(
       paramWithScan += (ConfigurationOptions.STARROCKS_FILTER_QUERY -> filterWhereClause)
     }
 
+    val readFields = if (requiredColumns != null && requiredColumns.length > 0) {
+      lazySchema.fields.filter(f => requiredColumns.contains(f.name))
+    } else {
+      lazySchema.fields
+    }
+    paramWithScan += (ConfigurationOptions.STARROCKS_BATCH_ROW_BYTES_ESTIMATE ->
+      readFields.map(_.dataType.defaultSize).sum.toString)
+
     new ScalaStarrocksRowRDD(sqlContext.sparkContext, paramWithScan.toMap, lazySchema)
   }
 
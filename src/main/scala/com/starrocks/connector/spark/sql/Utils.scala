@@ -25,15 +25,18 @@ import com.starrocks.connector.spark.sql.conf.StarRocksConfigBase.KEY_FE_HTTP
 import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig
 import org.apache.spark.sql.jdbc.JdbcDialect
 import org.apache.spark.sql.sources._
+import org.apache.spark.unsafe.types.UTF8String
 import org.slf4j.Logger
 
+import scala.collection.JavaConverters._
+
 private[sql] object Utils {
   /**
-   * quote column name
+   * quote column name, in which backquotes are escaped by doubling them
    * @param colName column name
    * @return quoted column name
    */
-  def quote(colName: String): String = s"`$colName`"
+  def quote(colName: String): String = "`" + colName.replace("`", "``") + "`"
 
   /**
    * compile a filter to StarRocks FE filter format.
@@ -49,12 +52,18 @@ private[sql] object Utils {
       case GreaterThanOrEqual(attribute, value) => s"${quote(attribute)} >= ${dialect.compileValue(value)}"
       case LessThan(attribute, value) => s"${quote(attribute)} < ${dialect.compileValue(value)}"
       case LessThanOrEqual(attribute, value) => s"${quote(attribute)} <= ${dialect.compileValue(value)}"
+      case EqualNullSafe(attribute, value) => s"${quote(attribute)} <=> ${dialect.compileValue(value)}"
       case In(attribute, values) =>
-        if (values.isEmpty || values.length >= inValueLengthLimit) {
+        if (values.isEmpty) {
           null
+        } else if (values.length >= inValueLengthLimit) {
+          compileLongIn(attribute, values, dialect, inValueLengthLimit)
         } else {
           s"${quote(attribute)} in (${dialect.compileValue(values)})"
         }
+      case StringStartsWith(attribute, value) => compileLike(attribute, value, "", "%", dialect)
+      case StringEndsWith(attribute, value) => compileLike(attribute, value, "%", "", dialect)
+      case StringContains(attribute, value) => compileLike(attribute, value, "%", "%", dialect)
       case IsNull(attribute) => s"${quote(attribute)} is null"
       case IsNotNull(attribute) => s"${quote(attribute)} is not null"
       case And(left, right) =>
@@ -71,17 +80,78 @@ private[sql] object Utils {
         } else {
           null
         }
+      case Not(child) =>
+        compileFilter(child, dialect, inValueLengthLimit).map(p => s"not ($p)").orNull
       case _ => null
     })
   }
 
+  /**
+   * ordering of the values of a filter as StarRocks compares them, in which strings are compared
+   * in the byte order of UTF-8 rather than that of UTF-16 of [[String.compareTo]]. The values
+   * must be [[Comparable]] of the same class.
+   */
+  val valueOrdering: Ordering[Any] = new Ordering[Any] {
+    override def compare(x: Any, y: Any): Int = (x, y) match {
+      case (l: String, r: String) => UTF8String.fromString(l).compareTo(UTF8String.fromString(r))
+      case _ => x.asInstanceOf[Comparable[Any]].compareTo(y)
+    }
+  }
+
+  /**
+   * compile an IN list too long to push down as it is to a range of its values, which lets
+   * StarRocks prune by the zone maps, and the list split into chunks no longer than the limit.
+   * A list longer than the upper limit of IN values, or with null or values of different
+   * classes, is not pushed down, since only exact translations are reported as handled.
+   */
+  private def compileLongIn(attribute: String, values: Array[Any], dialect: JdbcDialect,
+                            inValueLengthLimit: Int): String = {
+    if (values.length > ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT) {
+      return null
+    }
+    val valueClass = values.head.getClass
+    if (values.exists(v => v == null || v.getClass != valueClass || !v.isInstanceOf[Comparable[_]])) {
+      return null
+    }
+    val sortedValues = values.sorted(valueOrdering)
+    val column = quote(attribute)
+    val range = s"$column >= ${dialect.compileValue(sortedValues.head)} and " +
+      s"$column <= ${dialect.compileValue(sortedValues.last)}"
+    sortedValues.grouped(math.max(1, inValueLengthLimit))
+      .map(chunk => s"$column in (${dialect.compileValue(chunk)})")
+      .mkString(s"$range and (", " or ", ")")
+  }
+
+  /**
+   * compile a string match to LIKE, which is not pushed down if the value has the wildcards
+   * or the escape character of LIKE.
+   */
+  private def compileLike(attribute: String, value: String, prefix: String, suffix: String,
+                          dialect: JdbcDialect): String = {
+    if (value.exists(c => c == '%' || c == '_' || c == '\\')) {
+      null
+    } else {
+      s"${quote(attribute)} like ${dialect.compileValue(prefix + value + suffix)}"
+    }
+  }
+
+  /**
+   * check parameters validation and process it, used by the DataSource V2 read from Java.
+   * @param parameters parameters of the table
+   * @param logger slf4j logger
+   * @return processed parameters
+   */
+  def params(parameters: java.util.Map[String, String], logger: Logger): java.util.Map[String, String] = {
+    params(parameters.asScala.toMap, logger).asJava
+  }
+
   /**
    * check parameters validation and process it.
    * @param parameters parameters from rdd and spark conf
    * @param logger slf4j logger
    * @return processed parameters
    */
-  def params(parameters: Map[String, String], logger: Logger) = {
+  def params(parameters: Map[String, String], logger: Logger): Map[String, String] = {
     // '.' seems to be problematic when specifying the options
     // FIXME I don't know why to replace "_" with ".", but it will lead to unexpected result
     // if "_" is legal such as "starrocks.write.properties.partial_update". just skip to
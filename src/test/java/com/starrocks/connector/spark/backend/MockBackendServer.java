@@ -0,0 +1,178 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.backend;
+
+import com.starrocks.connector.spark.serialization.ArrowBatchGenerator;
+import com.starrocks.shade.org.apache.thrift.TException;
+import com.starrocks.shade.org.apache.thrift.server.TServer;
+import com.starrocks.shade.org.apache.thrift.server.TThreadPoolServer;
+import com.starrocks.shade.org.apache.thrift.transport.TServerSocket;
+import com.starrocks.shade.org.apache.thrift.transport.TTransportException;
+import com.starrocks.thrift.TPrimitiveType;
+import com.starrocks.thrift.TScanBatchResult;
+import com.starrocks.thrift.TScanCloseParams;
+import com.starrocks.thrift.TScanCloseResult;
+import com.starrocks.thrift.TScanColumnDesc;
+import com.starrocks.thrift.TScanNextBatchParams;
+import com.starrocks.thrift.TScanOpenParams;
+import com.starrocks.thrift.TScanOpenResult;
+import com.starrocks.thrift.TStarrocksExternalService;
+import com.starrocks.thrift.TStatus;
+import com.starrocks.thrift.TStatusCode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process StarRocks BE which serves the scans of {@link BackendClient} with generated
+ * arrow batches, so the read path can be tested and measured without a cluster. Each scan
+ * returns the same batch for a given number of times, and each get_next waits for the latency
+ * before returning to simulate the time BE spends on scanning.
+ */
+public class MockBackendServer implements TStarrocksExternalService.Iface, AutoCloseable {
+
+    private final List<String> types;
+    private final int batchesPerScan;
+    private final long latencyMs;
+    private final byte[] batch;
+    private final int rowsPerBatch;
+
+    // the number of batches returned by each open scanner
+    private final Map<String, AtomicInteger> scanners = new ConcurrentHashMap<>();
+    private final AtomicInteger openCount = new AtomicInteger();
+
+    private TServerSocket serverSocket;
+    private TServer server;
+    private Thread serveThread;
+
+    public MockBackendServer(List<String> types, int rowsPerBatch, int batchesPerScan,
+                             double nullRatio, long latencyMs) throws IOException {
+        this.types = types;
+        this.rowsPerBatch = rowsPerBatch;
+        this.batchesPerScan = batchesPerScan;
+        this.latencyMs = latencyMs;
+        this.batch = new ArrowBatchGenerator(types, nullRatio, 16, 42).generate(rowsPerBatch);
+    }
+
+    public MockBackendServer start() throws TTransportException {
+        serverSocket = new TServerSocket(0);
+        server = new TThreadPoolServer(new TThreadPoolServer.Args(serverSocket)
+                .processor(new TStarrocksExternalService.Processor<>(this)));
+        serveThread = new Thread(server::serve, "mock-backend-server");
+        serveThread.setDaemon(true);
+        serveThread.start();
+        return this;
+    }
+
+    /**
+     * The address of the server in the form of host:port, which is used as the BE address of partitions.
+     */
+    public String getAddress() {
+        return "127.0.0.1:" + serverSocket.getServerSocket().getLocalPort();
+    }
+
+    public int getRowsPerScan() {
+        return rowsPerBatch * batchesPerScan;
+    }
+
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    public int getActiveScanners() {
+        return scanners.size();
+    }
+
+    @Override
+    public TScanOpenResult open_scanner(TScanOpenParams params) throws TException {
+        String contextId = UUID.randomUUID().toString();
+        scanners.put(contextId, new AtomicInteger());
+        openCount.incrementAndGet();
+
+        List<TScanColumnDesc> columns = new ArrayList<>();
+        for (int i = 0; i < types.size(); i++) {
+            TScanColumnDesc column = new TScanColumnDesc();
+            column.setName(ArrowBatchGenerator.columnName(i));
+            column.setType(TPrimitiveType.valueOf(types.get(i)));
+            columns.add(column);
+        }
+        TScanOpenResult result = new TScanOpenResult();
+        result.setStatus(okStatus());
+        result.setContext_id(contextId);
+        result.setSelected_columns(columns);
+        return result;
+    }
+
+    @Override
+    public TScanBatchResult get_next(TScanNextBatchParams params) throws TException {
+        AtomicInteger sentBatches = scanners.get(params.getContext_id());
+        if (sentBatches == null) {
+            TStatus status = new TStatus();
+            status.setStatus_code(TStatusCode.INTERNAL_ERROR);
+            status.setError_msgs(Collections.singletonList(
+                    "context " + params.getContext_id() + " not found"));
+            TScanBatchResult result = new TScanBatchResult();
+            result.setStatus(status);
+            return result;
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean eos = sentBatches.getAndIncrement() >= batchesPerScan;
+        return ArrowBatchGenerator.toBatchResult(batch, eos);
+    }
+
+    @Override
+    public TScanCloseResult close_scanner(TScanCloseParams params) throws TException {
+        scanners.remove(params.getContext_id());
+        TScanCloseResult result = new TScanCloseResult();
+        result.setStatus(okStatus());
+        return result;
+    }
+
+    private static TStatus okStatus() {
+        TStatus status = new TStatus();
+        status.setStatus_code(TStatusCode.OK);
+        return status;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (server != null) {
+            server.stop();
+        }
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        if (serveThread != null) {
+            serveThread.join(1000);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.backend;
+
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_ROW_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_SIZE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_SIZE_DEFAULT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_BATCH_TARGET_BYTES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_READ_FIELD;
+
+public class TestBatchSizeTuner {
+
+    @After
+    public void clear() {
+        BatchSizeTuner.clearObserved();
+    }
+
+    private Settings createSettings(String readField) {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_BATCH_SIZE, "AUTO");
+        settings.setProperty(STARROCKS_BATCH_TARGET_BYTES, "1000000");
+        settings.setProperty(STARROCKS_READ_FIELD, readField);
+        return settings;
+    }
+
+    @Test
+    public void testBatchSize() {
+        Settings settings = createSettings("`k`,`v`");
+        Assert.assertTrue(BatchSizeTuner.isAuto(settings));
+        // no estimate nor observed bytes
+        Assert.assertEquals(STARROCKS_BATCH_SIZE_DEFAULT, BatchSizeTuner.batchSize("db", "tbl", settings));
+
+        settings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, "100");
+        Assert.assertEquals(10000, BatchSizeTuner.batchSize("db", "tbl", settings));
+        settings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, "1");
+        Assert.assertEquals(BatchSizeTuner.MAX_BATCH_SIZE, BatchSizeTuner.batchSize("db", "tbl", settings));
+        settings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, "1000000");
+        Assert.assertEquals(BatchSizeTuner.MIN_BATCH_SIZE, BatchSizeTuner.batchSize("db", "tbl", settings));
+    }
+
+    @Test
+    public void testObserve() {
+        Settings settings = createSettings("`k`,`v`");
+        settings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, "10");
+        BatchSizeTuner.observe("db", "tbl", settings, 200000, 1000);
+        Assert.assertEquals(5000, BatchSizeTuner.batchSize("db", "tbl", settings));
+        // the average moves towards the latest batches
+        BatchSizeTuner.observe("db", "tbl", settings, 600000, 1000);
+        Assert.assertEquals(3333, BatchSizeTuner.batchSize("db", "tbl", settings));
+
+        // the observed bytes are only used for the same columns
+        Settings otherSettings = createSettings("`k`");
+        otherSettings.setProperty(STARROCKS_BATCH_ROW_BYTES_ESTIMATE, "10");
+        Assert.assertEquals(100000, BatchSizeTuner.batchSize("db", "tbl", otherSettings));
+    }
+}
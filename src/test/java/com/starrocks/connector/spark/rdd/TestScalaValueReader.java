@@ -0,0 +1,113 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rdd;
+
+import com.starrocks.connector.spark.backend.MockBackendServer;
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.rest.PartitionDefinition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_DESERIALIZE_ARROW_ASYNC;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_REQUEST_MAX_SCANS_PER_BE;
+
+public class TestScalaValueReader {
+
+    private MockBackendServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockBackendServer(Arrays.asList("INT", "VARCHAR", "DECIMAL128", "DATETIME"),
+                100, 5, 0.1, 0).start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        Assert.assertEquals(server.getRowsPerScan(), readAll(false));
+        Assert.assertEquals(0, server.getActiveScanners());
+    }
+
+    @Test
+    public void testReadAsync() throws Exception {
+        Assert.assertEquals(server.getRowsPerScan(), readAll(true));
+        Assert.assertEquals(0, server.getActiveScanners());
+    }
+
+    @Test
+    public void testMaxScansPerBe() throws Exception {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_REQUEST_MAX_SCANS_PER_BE, "1");
+        PartitionDefinition partition = new PartitionDefinition("db", "tbl", settings,
+                server.getAddress(), Collections.singleton(1L), "plan");
+        ScalaValueReader reader = new ScalaValueReader(partition, partition.settings());
+        AtomicReference<ScalaValueReader> waitingReader = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                waitingReader.set(new ScalaValueReader(partition, partition.settings()));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+
+        // the second scanner is opened after the first one is closed
+        thread.join(500);
+        Assert.assertTrue(thread.isAlive());
+        Assert.assertEquals(1, server.getOpenCount());
+        reader.close();
+        thread.join(10000);
+        Assert.assertEquals(2, server.getOpenCount());
+        waitingReader.get().close();
+        Assert.assertEquals(0, server.getActiveScanners());
+    }
+
+    private int readAll(boolean async) throws Exception {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_DESERIALIZE_ARROW_ASYNC, String.valueOf(async));
+        PartitionDefinition partition = new PartitionDefinition("db", "tbl", settings,
+                server.getAddress(), Collections.singleton(1L), "plan");
+        ScalaValueReader reader = new ScalaValueReader(partition, partition.settings());
+        int rows = 0;
+        try {
+            while (reader.hasNext()) {
+                List<?> row = (List<?>) reader.next();
+                Assert.assertEquals(4, row.size());
+                rows++;
+            }
+        } finally {
+            reader.close();
+        }
+        Assert.assertEquals(5, reader.batchesRead().get());
+        return rows;
+    }
+}
@@ -0,0 +1,388 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process StarRocks FE which serves the http APIs used by the connector, so the read
+ * planning and the write path can be tested and measured without a cluster. It implements
+ * <ul>
+ *     <li>{@code GET /api/{db}/{table}/_schema} with the columns added by {@link #addColumn}</li>
+ *     <li>{@code POST /api/{db}/{table}/_query_plan} with tablets on the backends set by {@link #setBackends}</li>
+ *     <li>{@code PUT /api/{db}/{table}/_stream_load}</li>
+ *     <li>{@code /api/transaction/begin|load|prepare|commit|rollback}</li>
+ *     <li>{@code GET /api/{db}/get_load_state}</li>
+ * </ul>
+ * The data of loads is counted and discarded. Each load waits for the latency before returning
+ * to simulate the time StarRocks spends on writing, and fails with the failure ratio, so the
+ * buffering and retries of the writer can be observed.
+ */
+public class MockFrontendServer implements AutoCloseable {
+
+    private static final String API_PREFIX = "/api/";
+    private static final String TRANSACTION_PREFIX = API_PREFIX + "transaction/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, String> columns = new LinkedHashMap<>();
+    private final List<String> backends = new ArrayList<>();
+    private int tabletsPerBackend = 1;
+
+    private volatile long latencyMs = 0;
+    private volatile double failureRatio = 0;
+    private volatile String failureMessage = "injected failure";
+
+    // state of the transactions keyed by label
+    private final Map<String, String> transactions = new ConcurrentHashMap<>();
+    private final AtomicLong txnIds = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong failedLoadCount = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MockFrontendServer addColumn(String name, String type) {
+        columns.put(name, type);
+        return this;
+    }
+
+    public MockFrontendServer setBackends(List<String> backends, int tabletsPerBackend) {
+        this.backends.clear();
+        this.backends.addAll(backends);
+        this.tabletsPerBackend = tabletsPerBackend;
+        return this;
+    }
+
+    public MockFrontendServer setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    /**
+     * Make the loads fail with the message in the ratio, such as "too many versions".
+     */
+    public MockFrontendServer setFailure(double failureRatio, String failureMessage) {
+        this.failureRatio = failureRatio;
+        this.failureMessage = failureMessage;
+        return this;
+    }
+
+    public MockFrontendServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-fe-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_PREFIX, this::handle);
+        server.start();
+        return this;
+    }
+
+    /** The address in the form of "host:port", which can be used as the http url of FE. */
+    public String getAddress() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://" + getAddress();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getFailedLoadCount() {
+        return failedLoadCount.get();
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    public String getTransactionState(String label) {
+        return transactions.get(label);
+    }
+
+    /**
+     * Set the state of the transaction with the label, such as PREPARED or VISIBLE, as if
+     * it was loaded by a previous attempt.
+     */
+    public MockFrontendServer setTransactionState(String label, String state) {
+        transactions.put(label, state);
+        return this;
+    }
+
+    public Map<String, String> getTransactions() {
+        return Collections.unmodifiableMap(transactions);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Map<String, Object> response;
+            if (path.startsWith(TRANSACTION_PREFIX)) {
+                response = handleTransaction(path.substring(TRANSACTION_PREFIX.length()), exchange);
+            } else {
+                String[] parts = path.substring(API_PREFIX.length()).split("/");
+                if (parts.length == 2 && "get_load_state".equals(parts[1])) {
+                    response = getLoadState(exchange);
+                } else if (parts.length == 3 && "_schema".equals(parts[2])) {
+                    response = getSchema();
+                } else if (parts.length == 3 && "_query_plan".equals(parts[2])) {
+                    drain(exchange);
+                    response = getQueryPlan();
+                } else if (parts.length == 3 && "_stream_load".equals(parts[2])) {
+                    response = streamLoad(exchange);
+                } else {
+                    send(exchange, 404, notImplemented());
+                    return;
+                }
+            }
+            send(exchange, 200, response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("Status", "FAILED");
+            response.put("Message", String.valueOf(e.getMessage()));
+            send(exchange, 500, response);
+        }
+    }
+
+    private Map<String, Object> getSchema() {
+        List<Map<String, Object>> properties = new ArrayList<>();
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            Map<String, Object> field = new LinkedHashMap<>();
+            field.put("name", column.getKey());
+            field.put("type", column.getValue());
+            field.put("comment", "");
+            field.put("precision", 0);
+            field.put("scale", 0);
+            properties.add(field);
+        }
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("status", 200);
+        schema.put("properties", properties);
+        return schema;
+    }
+
+    private Map<String, Object> getQueryPlan() {
+        Map<String, Object> partitions = new LinkedHashMap<>();
+        long tabletId = 10000;
+        for (String backend : backends) {
+            for (int i = 0; i < tabletsPerBackend; i++) {
+                Map<String, Object> tablet = new LinkedHashMap<>();
+                tablet.put("routings", Collections.singletonList(backend));
+                tablet.put("version", 1);
+                tablet.put("versionHash", 0);
+                tablet.put("schemaHash", 0);
+                partitions.put(String.valueOf(tabletId++), tablet);
+            }
+        }
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("status", 200);
+        plan.put("opaqued_query_plan", "mock-query-plan");
+        plan.put("partitions", partitions);
+        return plan;
+    }
+
+    private Map<String, Object> getLoadState(HttpExchange exchange) throws IOException {
+        String label = null;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("label=")) {
+                    label = URLDecoder.decode(param.substring("label=".length()), StandardCharsets.UTF_8.name());
+                }
+            }
+        }
+        String state = label == null ? null : transactions.get(label);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "OK");
+        response.put("state", state == null ? "UNKNOWN" : state);
+        return response;
+    }
+
+    private Map<String, Object> streamLoad(HttpExchange exchange) throws IOException {
+        String label = exchange.getRequestHeaders().getFirst("label");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("Label", label);
+        response.put("TxnId", txnIds.incrementAndGet());
+        if (label != null && transactions.putIfAbsent(label, "PREPARE") != null) {
+            drain(exchange);
+            response.put("Status", "Label Already Exists");
+            response.put("ExistingJobStatus", transactions.get(label));
+            return response;
+        }
+        boolean success = load(exchange, response);
+        if (label != null) {
+            transactions.put(label, success ? "VISIBLE" : "ABORTED");
+        }
+        response.put("Status", success ? "Success" : "Fail");
+        return response;
+    }
+
+    private Map<String, Object> handleTransaction(String operation, HttpExchange exchange) throws IOException {
+        String label = exchange.getRequestHeaders().getFirst("label");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("Label", label);
+        if (label == null) {
+            drain(exchange);
+            response.put("Status", "FAILED");
+            response.put("Message", "empty label");
+            return response;
+        }
+        String state = transactions.get(label);
+        boolean success;
+        switch (operation) {
+            case "begin":
+                drain(exchange);
+                success = transactions.putIfAbsent(label, "PREPARE") == null;
+                if (success) {
+                    response.put("TxnId", txnIds.incrementAndGet());
+                } else {
+                    response.put("Status", "LABEL_ALREADY_EXISTS");
+                    response.put("ExistingJobStatus", state);
+                    return response;
+                }
+                break;
+            case "load":
+                if ("PREPARE".equals(state)) {
+                    success = load(exchange, response);
+                } else {
+                    drain(exchange);
+                    success = false;
+                }
+                break;
+            case "prepare":
+                drain(exchange);
+                success = transition(label, "PREPARE", "PREPARED");
+                break;
+            case "commit":
+                drain(exchange);
+                success = transition(label, "PREPARE", "VISIBLE") || transition(label, "PREPARED", "VISIBLE")
+                        || "VISIBLE".equals(state);
+                break;
+            case "rollback":
+                drain(exchange);
+                success = transition(label, "PREPARE", "ABORTED") || transition(label, "PREPARED", "ABORTED")
+                        || "ABORTED".equals(state);
+                break;
+            default:
+                drain(exchange);
+                return notImplemented();
+        }
+        response.put("Status", success ? "OK" : "FAILED");
+        if (!success && !response.containsKey("Message")) {
+            response.put("Message", "transaction " + label + " is in state " + state);
+        }
+        return response;
+    }
+
+    private boolean transition(String label, String from, String to) {
+        return transactions.replace(label, from, to);
+    }
+
+    // read the data of a load, and decide whether it fails
+    private boolean load(HttpExchange exchange, Map<String, Object> response) throws IOException {
+        long bytes = drain(exchange);
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+        loadCount.incrementAndGet();
+        if (failureRatio > 0 && ThreadLocalRandom.current().nextDouble() < failureRatio) {
+            failedLoadCount.incrementAndGet();
+            response.put("Message", failureMessage);
+            return false;
+        }
+        loadedBytes.addAndGet(bytes);
+        response.put("LoadBytes", bytes);
+        response.put("LoadTimeMs", latencyMs);
+        return true;
+    }
+
+    // The response of FE for the APIs that don't exist, by which the
+    // client knows that transaction stream load isn't supported
+    private static Map<String, Object> notImplemented() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "FAILED");
+        response.put("msg", "Not implemented");
+        return response;
+    }
+
+    // read and discard the request body, and return its size
+    private static long drain(HttpExchange exchange) throws IOException {
+        long bytes = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes += n;
+            }
+        }
+        return bytes;
+    }
+
+    private void send(HttpExchange exchange, int code, Map<String, Object> response) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.rest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TestFrontendSelector {
+
+    @After
+    public void reset() {
+        FrontendSelector.reset();
+    }
+
+    @Test
+    public void testChoose() {
+        List<String> nodes = Arrays.asList("fe1:8030", "fe2:8030", "fe3:8030");
+        long now = System.currentTimeMillis();
+
+        // the FE without latency is tried first
+        FrontendSelector.recordLatency("fe1:8030", 100);
+        FrontendSelector.recordLatency("fe2:8030", 20);
+        Assert.assertEquals("fe3:8030", FrontendSelector.choose(nodes, now));
+
+        // then the fastest one
+        FrontendSelector.recordLatency("fe3:8030", 50);
+        Assert.assertEquals("fe2:8030", FrontendSelector.choose(nodes, now));
+
+        // the failed FE is avoided until the backoff passes
+        FrontendSelector.recordFailure("fe2:8030", now);
+        Assert.assertEquals("fe3:8030", FrontendSelector.choose(nodes, now + 1));
+        Assert.assertEquals("fe2:8030", FrontendSelector.choose(nodes, now + FrontendSelector.FAILURE_BACKOFF_MS));
+
+        // the one failed earliest if all have failed recently
+        FrontendSelector.recordFailure("fe1:8030", now + 1);
+        FrontendSelector.recordFailure("fe3:8030", now + 2);
+        Assert.assertEquals("fe2:8030", FrontendSelector.choose(nodes, now + 3));
+    }
+
+    @Test
+    public void testProbeFailedFrontend() {
+        List<String> nodes = Arrays.asList("fe1:8030", "fe2:8030", "fe3:8030");
+        long now = System.currentTimeMillis();
+        FrontendSelector.recordLatency("fe1:8030", 20);
+        FrontendSelector.recordLatency("fe2:8030", 25);
+        // fe3 has never responded
+        FrontendSelector.recordFailure("fe3:8030", now);
+
+        // it's probed by a single request after the backoff, rather than taken as the fastest one
+        long afterBackoff = now + FrontendSelector.FAILURE_BACKOFF_MS;
+        Assert.assertEquals("fe3:8030", FrontendSelector.choose(nodes, afterBackoff));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNotEquals("fe3:8030", FrontendSelector.choose(nodes, afterBackoff + 1));
+        }
+
+        // and it's chosen as the others once it responds
+        FrontendSelector.recordLatency("fe3:8030", 22);
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            chosen.add(FrontendSelector.choose(nodes, afterBackoff + 2));
+        }
+        Assert.assertEquals(new HashSet<>(nodes), chosen);
+    }
+
+    @Test
+    public void testChooseSpread() {
+        List<String> nodes = Arrays.asList("fe1:8030", "fe2:8030", "fe3:8030");
+        FrontendSelector.recordLatency("fe1:8030", 20);
+        FrontendSelector.recordLatency("fe2:8030", 25);
+        FrontendSelector.recordLatency("fe3:8030", 100);
+
+        // the requests are spread over the FEs close to the fastest one
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            chosen.add(FrontendSelector.choose(nodes));
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList("fe1:8030", "fe2:8030")), chosen);
+    }
+}
@@ -19,9 +19,16 @@
 
 package com.starrocks.connector.spark.rest;
 
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -69,4 +76,42 @@ public class TestPartitionDefinition {
         Assert.assertTrue(pd1.compareTo(pd7) < 0);
         Assert.assertTrue(pd1.compareTo(pd8) < 0);
     }
+
+    @Test
+    public void testTabletIds() {
+        Set<Long> tabletIds = new HashSet<>(Arrays.asList(10017L, 10019L, 10021L, 0L, Long.MAX_VALUE, Long.MIN_VALUE));
+        byte[] encoded = PartitionDefinition.encodeTabletIds(tabletIds);
+        Assert.assertEquals(tabletIds, PartitionDefinition.decodeTabletIds(encoded));
+
+        Set<Long> smallIds = new HashSet<>(Arrays.asList(10017L, 10019L, 10021L));
+        // the count, the first id in 2 bytes and the differences in a byte
+        Assert.assertEquals(5, PartitionDefinition.encodeTabletIds(smallIds).length);
+        Assert.assertEquals(0, PartitionDefinition.decodeTabletIds(
+                PartitionDefinition.encodeTabletIds(new HashSet<>())).size());
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty("starrocks.request.retries", "5");
+        settings.setProperty("spark.app.name", "app");
+        Set<Long> tabletIds = new HashSet<>(Arrays.asList(TABLET_ID_1, TABLET_ID_2));
+        PartitionDefinition partition = new PartitionDefinition(
+                DATABASE_1, TABLE_1, settings, BE_1, tabletIds, QUERY_PLAN_1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(partition);
+        }
+        PartitionDefinition deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (PartitionDefinition) in.readObject();
+        }
+        Assert.assertEquals(partition, deserialized);
+        Assert.assertEquals(tabletIds, deserialized.getTabletIds());
+        Assert.assertEquals(QUERY_PLAN_1, deserialized.getQueryPlan());
+        // only the settings of the connector are kept
+        Assert.assertEquals("5", deserialized.settings().getProperty("starrocks.request.retries"));
+        Assert.assertNull(deserialized.settings().getProperty("spark.app.name"));
+    }
 }
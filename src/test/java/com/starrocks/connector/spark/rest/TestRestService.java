@@ -26,6 +26,7 @@ import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_T
 import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLE_IDENTIFIER;
 import static org.hamcrest.core.StringStartsWith.startsWith;
 
+import com.starrocks.connector.spark.cfg.ConfigurationOptions;
 import com.starrocks.connector.spark.cfg.PropertiesSettings;
 import com.starrocks.connector.spark.cfg.Settings;
 import com.starrocks.connector.spark.exception.StarrocksException;
@@ -42,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -206,6 +208,17 @@ public class TestRestService {
         RestService.parseSchema(notOkRes, logger);
     }
 
+    @Test
+    public void testBackendLocality() {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(ConfigurationOptions.STARROCKS_REQUEST_BE_HOST_MAPPING,
+                "10.0.0.1=node1, illegal,10.0.0.2=");
+        Map<String, String> hostMapping = BackendLocality.parseHostMapping(settings);
+        Assert.assertEquals(Collections.singletonMap("10.0.0.1", "node1"), hostMapping);
+        Assert.assertEquals("node1", BackendLocality.executorHost("10.0.0.1:9060", hostMapping));
+        Assert.assertEquals("10.0.0.2", BackendLocality.executorHost("10.0.0.2:9060", hostMapping));
+    }
+
     @Test
     public void testSelectTabletBe() throws Exception {
         String res = "{\"partitions\":{"
@@ -227,6 +240,14 @@ public class TestRestService {
 
         Assert.assertEquals(expected, RestService.selectBeForTablet(queryPlan, logger));
 
+        // the replicas on be2 and be4 are preferred, while tablet 11021 has only a replica on be3
+        Map<String, List<Long>> expectedPreferred = new HashMap<>();
+        expectedPreferred.put("be2", Collections.singletonList(11017L));
+        expectedPreferred.put("be4", Collections.singletonList(11019L));
+        expectedPreferred.put("be3", Collections.singletonList(11021L));
+        Assert.assertEquals(expectedPreferred, RestService.selectBeForTablet(queryPlan,
+                be -> be.equals("be2") || be.equals("be4"), logger));
+
         String noBeRes = "{\"partitions\":{"
                 + "\"11021\":{\"routings\":[],\"version\":3,\"versionHash\":1,\"schemaHash\":1}},"
                 + "\"opaqued_query_plan\":\"query_plan\",\"status\":200}";
@@ -300,4 +321,62 @@ public class TestRestService {
 
         Assert.assertEquals(expected, actual);
     }
+
+    @Test
+    public void testTabletCountForOnePartition() {
+        Map<String, List<Long>> beToTablets = new HashMap<>();
+        beToTablets.put("be1", Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L));
+        beToTablets.put("be2", Arrays.asList(9L, 10L, 11L, 12L));
+
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_TABLET_SIZE, "1");
+        Assert.assertEquals(1, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+
+        // the target is ignored until the size of a tablet is known
+        settings.setProperty(ConfigurationOptions.STARROCKS_PARTITION_TARGET_BYTES, "1000");
+        Assert.assertEquals(1, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+        settings.setProperty(ConfigurationOptions.STARROCKS_TABLET_BYTES_ESTIMATE, "300");
+        Assert.assertEquals(3, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+        // the partition is full when either target is reached
+        settings.setProperty(ConfigurationOptions.STARROCKS_PARTITION_TARGET_ROWS, "200");
+        settings.setProperty(ConfigurationOptions.STARROCKS_TABLET_ROWS_ESTIMATE, "100");
+        Assert.assertEquals(2, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+
+        // 4 tablets of a partition make 2 + 1 partitions
+        settings.setProperty(ConfigurationOptions.STARROCKS_PARTITION_MAX_COUNT, "3");
+        Assert.assertEquals(4, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+        // at least a partition for each BE
+        settings.setProperty(ConfigurationOptions.STARROCKS_PARTITION_MAX_COUNT, "1");
+        Assert.assertEquals(8, RestService.tabletCountForOnePartition(settings, beToTablets, logger));
+    }
+
+    @Test
+    public void testRequestMockFrontend() throws Exception {
+        try (MockFrontendServer server = new MockFrontendServer()
+                .addColumn("k1", "INT")
+                .addColumn("v1", "VARCHAR")
+                .setBackends(Arrays.asList("be1:9060", "be2:9060"), 3)
+                .start()) {
+            Settings settings = new PropertiesSettings();
+            settings.setProperty(STARROCKS_FENODES, server.getAddress());
+            settings.setProperty(STARROCKS_TABLE_IDENTIFIER, "d.t");
+
+            Schema schema = RestService.getSchema(settings, logger);
+            Assert.assertEquals(2, schema.size());
+            Assert.assertEquals("k1", schema.get(0).getName());
+            Assert.assertEquals("VARCHAR", schema.get(1).getType());
+
+            List<PartitionDefinition> partitions = RestService.findPartitions(settings, logger);
+            Set<Long> tablets = new HashSet<>();
+            for (PartitionDefinition partition : partitions) {
+                Assert.assertEquals("mock-query-plan", partition.getQueryPlan());
+                tablets.addAll(partition.getTabletIds());
+            }
+            Assert.assertEquals(6, tablets.size());
+
+            QueryPlan queryPlan = RestService.await(RestService.requestQueryPlanAsync(settings, logger));
+            Assert.assertEquals("mock-query-plan", queryPlan.getOpaqued_query_plan());
+            Assert.assertEquals(6, queryPlan.getPartitions().size());
+        }
+    }
 }
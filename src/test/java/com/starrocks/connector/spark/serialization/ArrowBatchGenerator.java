@@ -0,0 +1,256 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.serialization;
+
+import com.starrocks.connector.spark.rest.models.Schema;
+import com.starrocks.thrift.TScanBatchResult;
+import com.starrocks.thrift.TStatus;
+import com.starrocks.thrift.TStatusCode;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the arrow batches returned by StarRocks BE for the types handled by {@link RowBatch},
+ * with random values and a given ratio of nulls. It's used by benchmarks and mock servers.
+ */
+public class ArrowBatchGenerator {
+
+    public static final List<String> TYPES = Collections.unmodifiableList(Arrays.asList(
+            "BOOLEAN", "TINYINT", "SMALLINT", "INT", "BIGINT", "LARGEINT", "FLOAT", "DOUBLE",
+            "DECIMAL", "DECIMAL128", "DATE", "DATETIME", "CHAR", "VARCHAR", "BINARY"));
+
+    public static final int DECIMAL_PRECISION = 27;
+    public static final int DECIMAL_SCALE = 9;
+
+    private final List<String> types;
+    private final double nullRatio;
+    private final int varcharLength;
+    private final Random random;
+
+    public ArrowBatchGenerator(List<String> types, double nullRatio, int varcharLength, long seed) {
+        this.types = types;
+        this.nullRatio = nullRatio;
+        this.varcharLength = varcharLength;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * The schema returned by StarRocks FE for the generated columns, which are named c0, c1 ...
+     */
+    public Schema schema() {
+        Schema schema = new Schema(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            schema.put(columnName(i), types.get(i), "", DECIMAL_SCALE, DECIMAL_PRECISION);
+        }
+        return schema;
+    }
+
+    public static String columnName(int index) {
+        return "c" + index;
+    }
+
+    /**
+     * Generate an arrow IPC stream with one batch of the rows.
+     */
+    public byte[] generate(int rowCount) throws IOException {
+        List<Field> fields = new ArrayList<>();
+        for (int i = 0; i < types.size(); i++) {
+            fields.add(new Field(columnName(i), FieldType.nullable(arrowType(types.get(i))), null));
+        }
+        try (RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+             VectorSchemaRoot root = VectorSchemaRoot.create(
+                     new org.apache.arrow.vector.types.pojo.Schema(fields, null), allocator)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ArrowStreamWriter writer = new ArrowStreamWriter(
+                    root, new DictionaryProvider.MapDictionaryProvider(), outputStream);
+            writer.start();
+            root.setRowCount(rowCount);
+            for (int i = 0; i < types.size(); i++) {
+                FieldVector vector = root.getVector(columnName(i));
+                vector.setInitialCapacity(rowCount);
+                vector.allocateNew();
+                for (int row = 0; row < rowCount; row++) {
+                    if (random.nextDouble() < nullRatio) {
+                        setNull(vector, row);
+                    } else {
+                        setValue(types.get(i), vector, row);
+                    }
+                }
+                vector.setValueCount(rowCount);
+            }
+            writer.writeBatch();
+            writer.end();
+            writer.close();
+            return outputStream.toByteArray();
+        }
+    }
+
+    public static TScanBatchResult toBatchResult(byte[] rows, boolean eos) {
+        TStatus status = new TStatus();
+        status.setStatus_code(TStatusCode.OK);
+        TScanBatchResult result = new TScanBatchResult();
+        result.setStatus(status);
+        result.setEos(eos);
+        if (!eos) {
+            result.setRows(rows);
+        }
+        return result;
+    }
+
+    private static ArrowType arrowType(String type) {
+        switch (type) {
+            case "BOOLEAN":
+                return new ArrowType.Bool();
+            case "TINYINT":
+                return new ArrowType.Int(8, true);
+            case "SMALLINT":
+                return new ArrowType.Int(16, true);
+            case "INT":
+                return new ArrowType.Int(32, true);
+            case "BIGINT":
+                return new ArrowType.Int(64, true);
+            case "FLOAT":
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+            case "DOUBLE":
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case "DECIMAL128":
+                return new ArrowType.Decimal(DECIMAL_PRECISION, DECIMAL_SCALE);
+            case "BINARY":
+                return new ArrowType.Binary();
+            default:
+                // LARGEINT, DECIMAL, DATE, DATETIME, CHAR and VARCHAR are sent as strings
+                return new ArrowType.Utf8();
+        }
+    }
+
+    private static void setNull(FieldVector vector, int row) {
+        if (vector instanceof BitVector) {
+            ((BitVector) vector).setNull(row);
+        } else if (vector instanceof TinyIntVector) {
+            ((TinyIntVector) vector).setNull(row);
+        } else if (vector instanceof SmallIntVector) {
+            ((SmallIntVector) vector).setNull(row);
+        } else if (vector instanceof IntVector) {
+            ((IntVector) vector).setNull(row);
+        } else if (vector instanceof BigIntVector) {
+            ((BigIntVector) vector).setNull(row);
+        } else if (vector instanceof Float4Vector) {
+            ((Float4Vector) vector).setNull(row);
+        } else if (vector instanceof Float8Vector) {
+            ((Float8Vector) vector).setNull(row);
+        } else if (vector instanceof DecimalVector) {
+            ((DecimalVector) vector).setNull(row);
+        } else if (vector instanceof VarCharVector) {
+            ((VarCharVector) vector).setNull(row);
+        } else if (vector instanceof VarBinaryVector) {
+            ((VarBinaryVector) vector).setNull(row);
+        }
+    }
+
+    private void setValue(String type, FieldVector vector, int row) {
+        switch (type) {
+            case "BOOLEAN":
+                ((BitVector) vector).setSafe(row, random.nextBoolean() ? 1 : 0);
+                break;
+            case "TINYINT":
+                ((TinyIntVector) vector).setSafe(row, (byte) random.nextInt());
+                break;
+            case "SMALLINT":
+                ((SmallIntVector) vector).setSafe(row, (short) random.nextInt());
+                break;
+            case "INT":
+                ((IntVector) vector).setSafe(row, random.nextInt());
+                break;
+            case "BIGINT":
+                ((BigIntVector) vector).setSafe(row, random.nextLong());
+                break;
+            case "FLOAT":
+                ((Float4Vector) vector).setSafe(row, random.nextFloat());
+                break;
+            case "DOUBLE":
+                ((Float8Vector) vector).setSafe(row, random.nextDouble());
+                break;
+            case "DECIMAL128":
+                ((DecimalVector) vector).setSafe(row, randomDecimal());
+                break;
+            case "BINARY":
+                byte[] bytes = new byte[varcharLength];
+                random.nextBytes(bytes);
+                ((VarBinaryVector) vector).setSafe(row, bytes);
+                break;
+            default:
+                ((VarCharVector) vector).setSafe(row, stringValue(type).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private BigDecimal randomDecimal() {
+        return new BigDecimal(BigInteger.valueOf(random.nextLong()), DECIMAL_SCALE);
+    }
+
+    private String stringValue(String type) {
+        switch (type) {
+            case "LARGEINT":
+                return new BigInteger(120, random).toString();
+            case "DECIMAL":
+                return randomDecimal().toPlainString();
+            case "DATE":
+                return String.format("%04d-%02d-%02d",
+                        1970 + random.nextInt(100), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            case "DATETIME":
+                return String.format("%04d-%02d-%02d %02d:%02d:%02d",
+                        1970 + random.nextInt(100), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                        random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            default:
+                StringBuilder builder = new StringBuilder(varcharLength);
+                for (int i = 0; i < varcharLength; i++) {
+                    builder.append((char) ('a' + random.nextInt(26)));
+                }
+                return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import org.apache.spark.sql.connector.read.partitioning.ClusteredDistribution;
+import org.apache.spark.sql.connector.read.partitioning.Distribution;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestStarRocksPartitioning {
+
+    @Test
+    public void testSatisfy() {
+        StarRocksPartitioning partitioning = new StarRocksPartitioning(4, new String[] {"k1", "k2"});
+        Assert.assertEquals(4, partitioning.numPartitions());
+        Assert.assertTrue(partitioning.satisfy(new ClusteredDistribution(new String[] {"k1", "k2"})));
+        Assert.assertTrue(partitioning.satisfy(new ClusteredDistribution(new String[] {"k2", "v", "k1"})));
+        Assert.assertFalse(partitioning.satisfy(new ClusteredDistribution(new String[] {"k1"})));
+        Assert.assertFalse(partitioning.satisfy(new Distribution() {}));
+    }
+}
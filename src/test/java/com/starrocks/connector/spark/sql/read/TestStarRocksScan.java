@@ -0,0 +1,185 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import com.starrocks.connector.spark.cfg.PropertiesSettings;
+import com.starrocks.connector.spark.cfg.Settings;
+import com.starrocks.connector.spark.rest.models.QueryPlan;
+import com.starrocks.connector.spark.rest.models.Tablet;
+import com.starrocks.connector.spark.sql.conf.ReadStarRocksConfig;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.connector.read.Statistics;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_MAX_COUNT;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_PARTITION_TARGET_BYTES;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLET_BYTES_ESTIMATE;
+import static com.starrocks.connector.spark.cfg.ConfigurationOptions.STARROCKS_TABLE_IDENTIFIER;
+
+public class TestStarRocksScan {
+
+    private static final StructType SCHEMA = DataTypes.createStructType(new StructField[] {
+            DataTypes.createStructField("k", DataTypes.IntegerType, true),
+            DataTypes.createStructField("v.1", DataTypes.StringType, true)
+    });
+
+    private static ReadStarRocksConfig createConfig() {
+        Map<String, String> options = new HashMap<>();
+        options.put(STARROCKS_TABLE_IDENTIFIER, "db.tbl");
+        options.put("starrocks.read.plan-prefetch.enabled", "false");
+        return new ReadStarRocksConfig(options);
+    }
+
+    private StarRocksScan createScan(Settings settings) {
+        settings.setProperty(STARROCKS_TABLE_IDENTIFIER, "db.tbl");
+        return new StarRocksScan(SCHEMA, SCHEMA, new Filter[0], settings, createConfig());
+    }
+
+    private static QueryPlan createQueryPlan(int tablets) {
+        Map<String, Tablet> partitions = new HashMap<>();
+        for (int i = 0; i < tablets; i++) {
+            Tablet tablet = new Tablet();
+            tablet.setRoutings(Collections.singletonList("be1:9060"));
+            partitions.put(String.valueOf(10000 + i), tablet);
+        }
+        QueryPlan queryPlan = new QueryPlan();
+        queryPlan.setStatus(200);
+        queryPlan.setOpaqued_query_plan("query_plan");
+        queryPlan.setPartitions(partitions);
+        return queryPlan;
+    }
+
+    @Test
+    public void testFilterAttributes() {
+        NamedReference[] attributes = createScan(new PropertiesSettings()).filterAttributes();
+        Assert.assertEquals(2, attributes.length);
+        Assert.assertArrayEquals(new String[] {"k"}, attributes[0].fieldNames());
+        Assert.assertArrayEquals(new String[] {"v.1"}, attributes[1].fieldNames());
+    }
+
+    @Test
+    public void testRuntimeFilter() {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_FILTER_QUERY_IN_MAX_COUNT, "3");
+        settings.setProperty(STARROCKS_FILTER_QUERY, "`k` > 0");
+        StarRocksScan scan = createScan(settings);
+        scan.filter(new Filter[] {
+                new In("k", new Object[] {5, 1, null, 9, 3}),
+                new EqualTo("v.1", "a")
+        });
+        Assert.assertEquals("`k` > 0 and (`k` >= 1 and `k` <= 9) and (`v.1` = 'a')",
+                settings.getProperty(STARROCKS_FILTER_QUERY));
+
+        // values which can't be compared are not pushed
+        Settings mixedSettings = new PropertiesSettings();
+        mixedSettings.setProperty(STARROCKS_FILTER_QUERY_IN_MAX_COUNT, "1");
+        createScan(mixedSettings).filter(new Filter[] {new In("k", new Object[] {1, "a"})});
+        Assert.assertNull(mixedSettings.getProperty(STARROCKS_FILTER_QUERY));
+
+        // strings are bounded in the order of their UTF-8 bytes, in which U+1F600 is after U+E000
+        Settings stringSettings = new PropertiesSettings();
+        stringSettings.setProperty(STARROCKS_FILTER_QUERY_IN_MAX_COUNT, "1");
+        createScan(stringSettings).filter(new Filter[] {
+                new In("k", new Object[] {"\uD83D\uDE00", "a", null, "\uE000"})
+        });
+        Assert.assertEquals("(`k` >= 'a' and `k` <= '\uD83D\uDE00')",
+                stringSettings.getProperty(STARROCKS_FILTER_QUERY));
+    }
+
+    @Test
+    public void testUnknownStatistics() {
+        // the statistics are unknown if they can't be got from StarRocks FE
+        Statistics statistics = createScan(new PropertiesSettings()).estimateStatistics();
+        Assert.assertFalse(statistics.numRows().isPresent());
+        Assert.assertFalse(statistics.sizeInBytes().isPresent());
+    }
+
+    // A scan of a table of 1200 rows and 2400 bytes in 4 tablets, of which the filter selects 1
+    private StarRocksScan createScanWithStatistics(StructType readSchema, Settings settings,
+                                                   List<String> requestedFilters) {
+        return new StarRocksScan(SCHEMA, readSchema, new Filter[0], settings, createConfig()) {
+            @Override
+            QueryPlan requestQueryPlan(Settings planSettings) {
+                String filterQuery = planSettings.getProperty(STARROCKS_FILTER_QUERY);
+                requestedFilters.add(filterQuery);
+                return createQueryPlan(filterQuery == null || filterQuery.isEmpty() ? 4 : 1);
+            }
+
+            @Override
+            Map<String, String> requestTableStatistics() {
+                Map<String, String> statistics = new HashMap<>();
+                statistics.put("TABLE_ROWS", "1200");
+                statistics.put("DATA_LENGTH", "2400");
+                return statistics;
+            }
+        };
+    }
+
+    @Test
+    public void testEstimateStatistics() {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_TABLE_IDENTIFIER, "db.tbl");
+        settings.setProperty(STARROCKS_FILTER_QUERY, "`k` > 0");
+        // only the column k of 4 bytes is read from the rows of 24 bytes
+        StructType readSchema = new StructType(new StructField[] {SCHEMA.fields()[0]});
+        List<String> requestedFilters = new ArrayList<>();
+        StarRocksScan scan = createScanWithStatistics(readSchema, settings, requestedFilters);
+
+        Statistics statistics = scan.estimateStatistics();
+        Assert.assertEquals(300, statistics.numRows().getAsLong());
+        Assert.assertEquals(100, statistics.sizeInBytes().getAsLong());
+        Assert.assertTrue(scan.description().contains("selected tablets: 1/4"));
+        // the query plans of the filter and of the whole table are requested once
+        Assert.assertEquals(Arrays.asList("`k` > 0", ""), requestedFilters);
+        scan.estimateStatistics();
+        Assert.assertEquals(2, requestedFilters.size());
+    }
+
+    @Test
+    public void testEstimateTabletSizeByQueryPlan() {
+        Settings settings = new PropertiesSettings();
+        settings.setProperty(STARROCKS_TABLE_IDENTIFIER, "db.tbl");
+        settings.setProperty(STARROCKS_PARTITION_TARGET_BYTES, "1200");
+        List<String> requestedFilters = new ArrayList<>();
+        StarRocksScan scan = createScanWithStatistics(SCHEMA, settings, requestedFilters);
+
+        // 2 tablets of 600 bytes are packed into a partition
+        Assert.assertEquals(2, scan.planPartitionDefinitions().size());
+        // the tablets of the unfiltered scan are counted by the query plan of the partitions
+        Assert.assertEquals(1, requestedFilters.size());
+        Assert.assertEquals("600", settings.getProperty(STARROCKS_TABLET_BYTES_ESTIMATE));
+        Assert.assertTrue(scan.description().contains("selected tablets: 4/4"));
+    }
+}
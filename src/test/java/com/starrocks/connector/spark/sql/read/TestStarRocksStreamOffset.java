@@ -0,0 +1,72 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.read;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class TestStarRocksStreamOffset {
+
+    @Test
+    public void testJson() {
+        Map<Long, Long> versions = new HashMap<>();
+        versions.put(10002L, 5L);
+        versions.put(10001L, 3L);
+        String digest = StarRocksStreamOffset.digest(versions);
+        StarRocksStreamOffset offset = new StarRocksStreamOffset(digest, "2023-01-02 03:04:05");
+        String json = offset.json();
+        Assert.assertEquals("{\"tabletVersionsDigest\":\"" + digest + "\",\"watermark\":\"2023-01-02 03:04:05\"}",
+                json);
+
+        StarRocksStreamOffset parsed = StarRocksStreamOffset.fromJson(json);
+        Assert.assertEquals(offset, parsed);
+        Assert.assertEquals(digest, parsed.getTabletVersionsDigest());
+        Assert.assertEquals("2023-01-02 03:04:05", parsed.getWatermark());
+
+        StarRocksStreamOffset initial = StarRocksStreamOffset.fromJson(new StarRocksStreamOffset(null, null).json());
+        Assert.assertNull(initial.getTabletVersionsDigest());
+        Assert.assertNull(initial.getWatermark());
+
+        // the offsets with the versions of the tablets are read as their digest
+        StarRocksStreamOffset legacy = StarRocksStreamOffset.fromJson(
+                "{\"tabletVersions\":{\"10001\":3,\"10002\":5},\"watermark\":\"2023-01-02 03:04:05\"}");
+        Assert.assertEquals(offset, legacy);
+    }
+
+    @Test
+    public void testDigest() {
+        Map<Long, Long> versions = new HashMap<>();
+        versions.put(10001L, 3L);
+        versions.put(10002L, 5L);
+        String digest = StarRocksStreamOffset.digest(versions);
+        Assert.assertEquals(digest, StarRocksStreamOffset.digest(new TreeMap<>(versions)));
+        Assert.assertTrue(digest.startsWith("2:"));
+
+        versions.put(10002L, 6L);
+        Assert.assertNotEquals(digest, StarRocksStreamOffset.digest(versions));
+        versions.put(10002L, 5L);
+        versions.put(10003L, 1L);
+        Assert.assertNotEquals(digest, StarRocksStreamOffset.digest(versions));
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.schema;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class TestCsvRowStringConverter {
+
+    private static final StructType SCHEMA = DataTypes.createStructType(new StructField[] {
+            DataTypes.createStructField("id", DataTypes.IntegerType, false),
+            DataTypes.createStructField("name", DataTypes.StringType, true),
+            DataTypes.createStructField("flag", DataTypes.BooleanType, true),
+            DataTypes.createStructField("tiny", DataTypes.ByteType, true),
+            DataTypes.createStructField("score", DataTypes.FloatType, true),
+            DataTypes.createStructField("amount", DataTypes.createDecimalType(10, 2), true),
+            DataTypes.createStructField("dt", DataTypes.DateType, true),
+            DataTypes.createStructField("ts", DataTypes.TimestampType, true)
+    });
+
+    @Test
+    public void testConvertInternalRow() {
+        CsvRowStringConverter converter = new CsvRowStringConverter(SCHEMA, "\t");
+        InternalRow row = new GenericInternalRow(new Object[] {
+                1,
+                UTF8String.fromString("中文"),
+                true,
+                (byte) -2,
+                1.5f,
+                Decimal.apply(new BigDecimal("12.30")),
+                // 2023-01-02
+                19359,
+                1672628645006000L
+        });
+        String csv = converter.fromRow(row);
+        Assert.assertTrue(csv.startsWith("1\t中文\ttrue\t-2\t1.5\t12.30\t2023-01-02\t"));
+        // the same as converting the row to Row
+        Assert.assertEquals(converter.fromRow(new InternalRowToRowFunction(SCHEMA).apply(row)), csv);
+
+        InternalRow nulls = new GenericInternalRow(new Object[] {2, null, null, null, null, null, null, null});
+        Assert.assertEquals("2\t\\N\t\\N\t\\N\t\\N\t\\N\t\\N\t\\N", converter.fromRow(nulls));
+        Assert.assertEquals(csv, converter.fromRow(row));
+    }
+}
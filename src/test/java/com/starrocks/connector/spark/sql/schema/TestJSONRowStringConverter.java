@@ -0,0 +1,90 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class TestJSONRowStringConverter {
+
+    private static final StructType SCHEMA = DataTypes.createStructType(new StructField[] {
+            DataTypes.createStructField("id", DataTypes.LongType, false),
+            DataTypes.createStructField("name", DataTypes.StringType, true),
+            DataTypes.createStructField("flag", DataTypes.BooleanType, true),
+            DataTypes.createStructField("small", DataTypes.ShortType, true),
+            DataTypes.createStructField("score", DataTypes.DoubleType, true),
+            DataTypes.createStructField("amount", DataTypes.createDecimalType(10, 2), true),
+            DataTypes.createStructField("dt", DataTypes.DateType, true),
+            DataTypes.createStructField("ts", DataTypes.TimestampType, true)
+    });
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testConvertInternalRow() throws Exception {
+        JSONRowStringConverter converter = new JSONRowStringConverter(SCHEMA);
+        InternalRow row = new GenericInternalRow(new Object[] {
+                1L,
+                UTF8String.fromString("a\"b\n中文"),
+                true,
+                (short) 3,
+                1.5,
+                Decimal.apply(new BigDecimal("12.34")),
+                // 2023-01-02
+                19359,
+                // 2023-01-02 03:04:05.006 in UTC
+                1672628645006000L
+        });
+        String json = converter.fromRow(row);
+        JsonNode node = mapper.readTree(json);
+        Assert.assertEquals(1L, node.get("id").asLong());
+        Assert.assertEquals("a\"b\n中文", node.get("name").asText());
+        Assert.assertTrue(node.get("flag").asBoolean());
+        Assert.assertEquals(3, node.get("small").asInt());
+        Assert.assertEquals(1.5, node.get("score").asDouble(), 0);
+        Assert.assertEquals("12.34", node.get("amount").asText());
+        Assert.assertEquals("2023-01-02", node.get("dt").asText());
+        // the same as converting the row to Row
+        Assert.assertEquals(mapper.readTree(converter.fromRow(new InternalRowToRowFunction(SCHEMA).apply(row))), node);
+    }
+
+    @Test
+    public void testConvertNullsAndReuse() throws Exception {
+        JSONRowStringConverter converter = new JSONRowStringConverter(SCHEMA);
+        InternalRow nulls = new GenericInternalRow(new Object[] {2L, null, null, null, null, null, null, null});
+        Assert.assertEquals("{\"id\":2}", converter.fromRow(nulls));
+
+        InternalRow row = new GenericInternalRow(new Object[] {
+                3L, UTF8String.fromString("x"), false, null, null, null, null, null});
+        Assert.assertEquals("{\"id\":3,\"name\":\"x\",\"flag\":false}", converter.fromRow(row));
+        Assert.assertEquals("{\"id\":2}", converter.fromRow(nulls));
+    }
+}
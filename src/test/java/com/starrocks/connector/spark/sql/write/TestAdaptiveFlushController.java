@@ -0,0 +1,103 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAdaptiveFlushController {
+
+    private static final long MIN_BYTES = 1024;
+    private static final long MAX_BYTES = 16 * 1024;
+    private static final long TARGET_LATENCY_MS = 1000;
+
+    @Test
+    public void testShrinkOnSlowLoad() {
+        AdaptiveFlushController controller = new AdaptiveFlushController(MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS);
+        Assert.assertEquals(MAX_BYTES, controller.getFlushBytes());
+        controller.onLoadSuccess(MAX_BYTES, 2000);
+        Assert.assertEquals(MAX_BYTES / 2, controller.getFlushBytes());
+        for (int i = 0; i < 10; i++) {
+            controller.onLoadSuccess(controller.getFlushBytes(), 2000);
+        }
+        Assert.assertEquals(MIN_BYTES, controller.getFlushBytes());
+    }
+
+    @Test
+    public void testGrowOnFastLoad() {
+        AdaptiveFlushController controller = new AdaptiveFlushController(MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS);
+        controller.onLoadSuccess(MAX_BYTES, 2000);
+        long flushBytes = controller.getFlushBytes();
+        // a small load is fast because of its size, so don't grow
+        controller.onLoadSuccess(flushBytes / 4, 100);
+        Assert.assertEquals(flushBytes, controller.getFlushBytes());
+        controller.onLoadSuccess(flushBytes, 100);
+        Assert.assertTrue(controller.getFlushBytes() > flushBytes);
+        // latency between half of the target and the target keeps the size
+        flushBytes = controller.getFlushBytes();
+        controller.onLoadSuccess(flushBytes, 800);
+        Assert.assertEquals(flushBytes, controller.getFlushBytes());
+        for (int i = 0; i < 10; i++) {
+            controller.onLoadSuccess(controller.getFlushBytes(), 100);
+        }
+        Assert.assertEquals(MAX_BYTES, controller.getFlushBytes());
+    }
+
+    @Test
+    public void testTooManyVersions() {
+        AdaptiveFlushController controller = new AdaptiveFlushController(MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS);
+        controller.onLoadSuccess(MAX_BYTES, 5000);
+        controller.onLoadSuccess(MAX_BYTES, 5000);
+        long flushBytes = controller.getFlushBytes();
+        Exception e = new RuntimeException("Failed to flush",
+                new RuntimeException("Too many versions. tablet_id: 10012, version_count: 1001, limit: 1000"));
+        controller.onLoadFailure(e, 0);
+        Assert.assertEquals(flushBytes * 2, controller.getFlushBytes());
+        Assert.assertEquals(1000, controller.getBackoffMs(0));
+        controller.onLoadFailure(e, 0);
+        Assert.assertEquals(2000, controller.getBackoffMs(0));
+        Assert.assertEquals(0, controller.getBackoffMs(2000));
+
+        controller.onLoadSuccess(MAX_BYTES, 800);
+        controller.onLoadFailure(e, 0);
+        Assert.assertEquals(1000, controller.getBackoffMs(0));
+    }
+
+    @Test
+    public void testOtherFailure() {
+        AdaptiveFlushController controller = new AdaptiveFlushController(MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS);
+        controller.onLoadFailure(new RuntimeException("timeout"), 0);
+        Assert.assertEquals(MAX_BYTES / 2, controller.getFlushBytes());
+        Assert.assertEquals(0, controller.getBackoffMs(0));
+    }
+
+    @Test
+    public void testGetOrCreate() {
+        AdaptiveFlushController controller =
+                AdaptiveFlushController.getOrCreate("db", "tbl", MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS);
+        Assert.assertSame(controller,
+                AdaptiveFlushController.getOrCreate("db", "tbl", MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS));
+        // writes to the same table with other sizes or latency are tuned separately
+        Assert.assertNotSame(controller,
+                AdaptiveFlushController.getOrCreate("db", "tbl", MIN_BYTES, MAX_BYTES * 2, TARGET_LATENCY_MS));
+        Assert.assertNotSame(controller,
+                AdaptiveFlushController.getOrCreate("db", "tbl", MIN_BYTES, MAX_BYTES, TARGET_LATENCY_MS * 2));
+    }
+}
@@ -0,0 +1,86 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import com.starrocks.connector.spark.sql.write.EpochCommitLog.TransactionLabel;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TestEpochCommitLog {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        File directory = new File(folder.getRoot(), "epochs");
+        EpochCommitLog commitLog = new EpochCommitLog(directory.getPath(), new Configuration());
+        Assert.assertTrue(directory.isDirectory());
+        Assert.assertNull(commitLog.read(1));
+
+        commitLog.write(1, Arrays.asList(
+                new TransactionLabel("db", "tbl", "label-1"),
+                new TransactionLabel("db", "tbl2", "label-2")));
+        List<TransactionLabel> labels = commitLog.read(1);
+        Assert.assertEquals(2, labels.size());
+        Assert.assertEquals("db.tbl/label-1", labels.get(0).toString());
+        Assert.assertEquals("db.tbl2/label-2", labels.get(1).toString());
+
+        // the record of a replayed epoch is replaced
+        commitLog.write(1, Collections.singletonList(new TransactionLabel("db", "tbl", "label-3")));
+        labels = commitLog.read(1);
+        Assert.assertEquals(1, labels.size());
+        Assert.assertEquals("label-3", labels.get(0).getLabel());
+        Assert.assertFalse(new File(directory, "1.tmp").exists());
+
+        // an epoch without transactions is still recorded
+        commitLog.write(2, Collections.emptyList());
+        Assert.assertEquals(Collections.emptyList(), commitLog.read(2));
+    }
+
+    @Test
+    public void testPurge() throws Exception {
+        File directory = folder.newFolder("epochs");
+        EpochCommitLog commitLog = new EpochCommitLog(directory.getPath(), new Configuration());
+        for (long epochId = 1; epochId <= 5; epochId++) {
+            commitLog.write(epochId, Collections.singletonList(new TransactionLabel("db", "tbl", "label-" + epochId)));
+        }
+        // a temporary file left by a failed write, and a file which is not a record
+        Assert.assertTrue(new File(directory, "2.tmp").createNewFile());
+        Assert.assertTrue(new File(directory, "other").createNewFile());
+
+        commitLog.purge(3);
+        Assert.assertNull(commitLog.read(1));
+        Assert.assertNull(commitLog.read(2));
+        Assert.assertFalse(new File(directory, "2.tmp").exists());
+        Assert.assertTrue(new File(directory, "other").exists());
+        for (long epochId = 3; epochId <= 5; epochId++) {
+            Assert.assertEquals("label-" + epochId, commitLog.read(epochId).get(0).getLabel());
+        }
+    }
+}
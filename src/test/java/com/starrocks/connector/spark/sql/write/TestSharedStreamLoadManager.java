@@ -0,0 +1,91 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import com.starrocks.connector.spark.rest.MockFrontendServer;
+import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestSharedStreamLoadManager {
+
+    private MockFrontendServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockFrontendServer().start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        WriteStarRocksConfig config = createConfig();
+        SharedStreamLoadManager manager = SharedStreamLoadManager.acquire(config, 1);
+        // tasks with the same configuration share the manager
+        Assert.assertSame(manager, SharedStreamLoadManager.acquire(config, 2));
+        manager.release(1);
+        Assert.assertSame(manager, SharedStreamLoadManager.acquire(config, 3));
+
+        manager.release(2);
+        manager.release(3);
+        // the manager is closed when the last task releases it, and a new one is created for the next task
+        SharedStreamLoadManager newManager = SharedStreamLoadManager.acquire(config, 4);
+        Assert.assertNotSame(manager, newManager);
+        newManager.release(4);
+    }
+
+    @Test
+    public void testFlushRowsOfOtherTasks() {
+        WriteStarRocksConfig config = createConfig();
+        SharedStreamLoadManager manager = SharedStreamLoadManager.acquire(config, 1);
+        Assert.assertSame(manager, SharedStreamLoadManager.acquire(config, 2));
+        try {
+            manager.write(1, null, "db", "tbl", "1\ta");
+            manager.write(2, null, "db", "tbl", "2\tb");
+            // a flush of one task loads the rows of all tasks
+            manager.flush(1);
+            Assert.assertTrue(server.getLoadCount() > 0);
+            Assert.assertTrue(server.getLoadedBytes() >= "1\ta".length() + "2\tb".length());
+        } finally {
+            manager.release(1);
+            manager.release(2);
+        }
+    }
+
+    private WriteStarRocksConfig createConfig() {
+        Map<String, String> options = new HashMap<>();
+        options.put("starrocks.fe.http.url", server.getUrl());
+        options.put("starrocks.fe.jdbc.url", "jdbc:mysql://127.0.0.1:9030");
+        options.put("starrocks.table.identifier", "db.tbl");
+        options.put("starrocks.user", "root");
+        options.put("starrocks.password", "");
+        options.put("starrocks.write.enable.shared-load-manager", "true");
+        return new WriteStarRocksConfig(options);
+    }
+}
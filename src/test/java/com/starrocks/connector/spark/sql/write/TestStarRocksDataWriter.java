@@ -0,0 +1,37 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class TestStarRocksDataWriter {
+
+    @Test
+    public void testUtf8Length() {
+        // ASCII, 2 bytes, 3 bytes, a pair of surrogates, and the largest character of 3 bytes
+        String[] rows = {"", "1\tabc", "2\t\u00e9t\u00e9", "3\t\u4e2d\u6587", "4\t\uD83D\uDE00", "5\t\uFFFF"};
+        for (String row : rows) {
+            Assert.assertEquals(row, row.getBytes(StandardCharsets.UTF_8).length, StarRocksDataWriter.utf8Length(row));
+        }
+    }
+}
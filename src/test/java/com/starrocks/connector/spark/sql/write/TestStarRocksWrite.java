@@ -0,0 +1,269 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql.write;
+
+import com.starrocks.connector.spark.rest.MockFrontendServer;
+import com.starrocks.connector.spark.sql.conf.WriteStarRocksConfig;
+import com.starrocks.connector.spark.sql.write.EpochCommitLog.TransactionLabel;
+import com.starrocks.data.load.stream.StreamLoadSnapshot;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.LogicalWriteInfo;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestStarRocksWrite {
+
+    private static final String QUERY_ID = "test-query";
+    private static final String SQL_CHECKPOINT_LOCATION = "spark.sql.streaming.checkpointLocation";
+    private static final StructType SCHEMA = DataTypes.createStructType(new StructField[] {
+            DataTypes.createStructField("id", DataTypes.LongType, false),
+            DataTypes.createStructField("name", DataTypes.StringType, true)
+    });
+
+    private static SparkSession spark;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockFrontendServer server;
+
+    @BeforeClass
+    public static void startSpark() {
+        spark = SparkSession.builder()
+                .master("local[1]")
+                .appName("TestStarRocksWrite")
+                .config("spark.ui.enabled", "false")
+                .getOrCreate();
+    }
+
+    @AfterClass
+    public static void stopSpark() {
+        if (spark != null) {
+            spark.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockFrontendServer().start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        spark.conf().unset(SQL_CHECKPOINT_LOCATION);
+    }
+
+    @Test
+    public void testTwoPhaseCommit() throws Exception {
+        StarRocksWrite write = createWrite(null);
+        WriterCommitMessage[] messages = new WriterCommitMessage[] {prepare(write, 0), prepare(write, 1)};
+        // the tasks only prepare their transactions
+        List<String> labels = getLabels(messages);
+        Assert.assertEquals(2, labels.size());
+        for (String label : labels) {
+            Assert.assertEquals("PREPARED", server.getTransactionState(label));
+        }
+
+        // and the driver commits them after all tasks succeed
+        write.commit(messages);
+        for (String label : labels) {
+            Assert.assertEquals("VISIBLE", server.getTransactionState(label));
+        }
+    }
+
+    @Test
+    public void testAbortAfterFailedCommit() throws Exception {
+        StarRocksWrite write = createWrite(null);
+        WriterCommitMessage[] messages = new WriterCommitMessage[] {
+                prepare(write, 0), prepare(write, 1), prepare(write, 2)};
+        List<String> labels = getLabels(messages);
+        Assert.assertEquals(3, labels.size());
+        // the second transaction has been aborted by StarRocks, such as after timeout
+        server.setTransactionState(labels.get(1), "ABORTED");
+
+        try {
+            write.commit(messages);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        write.abort(messages);
+        // the transaction committed before the failure stays visible, and the rest are rolled back
+        Assert.assertEquals("VISIBLE", server.getTransactionState(labels.get(0)));
+        Assert.assertEquals("ABORTED", server.getTransactionState(labels.get(1)));
+        Assert.assertEquals("ABORTED", server.getTransactionState(labels.get(2)));
+    }
+
+    @Test
+    public void testRecoverCommittedEpoch() throws Exception {
+        String epochLogDir = folder.newFolder("epochs").getPath();
+        EpochCommitLog commitLog = new EpochCommitLog(epochLogDir, new Configuration());
+        commitLog.write(7, Arrays.asList(
+                new TransactionLabel("db", "tbl", "label-1"),
+                new TransactionLabel("db", "tbl", "label-2")));
+        // the driver failed after committing the first transaction of the epoch
+        server.setTransactionState("label-1", "VISIBLE").setTransactionState("label-2", "PREPARED");
+
+        StarRocksWrite write = createWrite(epochLogDir);
+        write.commit(7, new WriterCommitMessage[0]);
+        // the rest of the epoch is committed, and the replayed epoch is skipped
+        Assert.assertEquals("VISIBLE", server.getTransactionState("label-1"));
+        Assert.assertEquals("VISIBLE", server.getTransactionState("label-2"));
+        Assert.assertEquals(2, commitLog.read(7).size());
+    }
+
+    @Test
+    public void testRecoverUncommittedEpoch() throws Exception {
+        String epochLogDir = folder.newFolder("epochs").getPath();
+        EpochCommitLog commitLog = new EpochCommitLog(epochLogDir, new Configuration());
+        commitLog.write(7, Arrays.asList(
+                new TransactionLabel("db", "tbl", "label-1"),
+                new TransactionLabel("db", "tbl", "label-2")));
+        // the driver failed before committing any transaction of the epoch
+        server.setTransactionState("label-1", "PREPARED").setTransactionState("label-2", "PREPARED");
+
+        StarRocksWrite write = createWrite(epochLogDir);
+        write.commit(7, new WriterCommitMessage[0]);
+        // the transactions of the previous attempt are rolled back, and the replayed epoch is recorded
+        Assert.assertEquals("ABORTED", server.getTransactionState("label-1"));
+        Assert.assertEquals("ABORTED", server.getTransactionState("label-2"));
+        Assert.assertEquals(Collections.emptyList(), commitLog.read(7));
+    }
+
+    @Test
+    public void testRecoverMissingLabels() throws Exception {
+        String epochLogDir = folder.newFolder("epochs").getPath();
+        EpochCommitLog commitLog = new EpochCommitLog(epochLogDir, new Configuration());
+        // the labels were recorded, but the driver failed before the transactions were prepared
+        commitLog.write(7, Collections.singletonList(new TransactionLabel("db", "tbl", "label-1")));
+
+        StarRocksWrite write = createWrite(epochLogDir);
+        write.commit(7, new WriterCommitMessage[0]);
+        Assert.assertNull(server.getTransactionState("label-1"));
+        Assert.assertEquals(Collections.emptyList(), commitLog.read(7));
+    }
+
+    @Test
+    public void testEpochLogDir() throws Exception {
+        // streaming with two-phase commit fails fast without a directory for the epoch log
+        StarRocksWrite write = createWrite(null);
+        try {
+            write.createStreamingWriterFactory(null);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains(SQL_CHECKPOINT_LOCATION));
+        }
+
+        // the default checkpoint location of the session is used if the query doesn't set one
+        File checkpointLocation = folder.newFolder("checkpoints");
+        spark.conf().set(SQL_CHECKPOINT_LOCATION, checkpointLocation.getPath());
+        Assert.assertNotNull(write.createStreamingWriterFactory(null));
+        write.commit(1, new WriterCommitMessage[0]);
+        Assert.assertTrue(new File(checkpointLocation, "starrocks-epochs/" + QUERY_ID + "/1").exists());
+    }
+
+    // write rows in a task, which prepares its transaction when it commits
+    private static WriterCommitMessage prepare(StarRocksWrite write, int partitionId) throws Exception {
+        DataWriter<InternalRow> writer = write.createBatchWriterFactory(null).createWriter(partitionId, partitionId);
+        try {
+            for (long id = 0; id < 10; id++) {
+                writer.write(new GenericInternalRow(new Object[] {id, UTF8String.fromString("name-" + id)}));
+            }
+            return writer.commit();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static List<String> getLabels(WriterCommitMessage[] messages) {
+        List<String> labels = new ArrayList<>();
+        for (WriterCommitMessage message : messages) {
+            for (StreamLoadSnapshot.Transaction transaction
+                    : ((StarRocksWriterCommitMessage) message).getSnapshot().getTransactions()) {
+                labels.add(transaction.getLabel());
+            }
+        }
+        return labels;
+    }
+
+    private StarRocksWrite createWrite(String epochLogDir) {
+        Map<String, String> options = new HashMap<>();
+        options.put("starrocks.write.enable.two-phase-commit", "true");
+        if (epochLogDir != null) {
+            options.put("starrocks.write.epoch.log.dir", epochLogDir);
+        }
+        return new StarRocksWrite(createWriteInfo(), createConfig(options));
+    }
+
+    private WriteStarRocksConfig createConfig(Map<String, String> extraOptions) {
+        Map<String, String> options = new HashMap<>();
+        options.put("starrocks.fe.http.url", server.getUrl());
+        options.put("starrocks.fe.jdbc.url", "jdbc:mysql://127.0.0.1:9030");
+        options.put("starrocks.table.identifier", "db.tbl");
+        options.put("starrocks.user", "root");
+        options.put("starrocks.password", "");
+        options.putAll(extraOptions);
+        return new WriteStarRocksConfig(options);
+    }
+
+    private static LogicalWriteInfo createWriteInfo() {
+        return new LogicalWriteInfo() {
+            @Override
+            public CaseInsensitiveStringMap options() {
+                return CaseInsensitiveStringMap.empty();
+            }
+
+            @Override
+            public String queryId() {
+                return QUERY_ID;
+            }
+
+            @Override
+            public StructType schema() {
+                return SCHEMA;
+            }
+        };
+    }
+}
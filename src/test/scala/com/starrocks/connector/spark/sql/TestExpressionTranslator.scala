@@ -0,0 +1,74 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package com.starrocks.connector.spark.sql
+
+import java.time.LocalDate
+import java.util.TimeZone
+
+import org.apache.spark.sql.catalyst.expressions._
+import org.apache.spark.sql.types._
+import org.apache.spark.unsafe.types.UTF8String
+import org.junit.{Assert, Test}
+
+class TestExpressionTranslator {
+
+  private val k = AttributeReference("k", IntegerType)()
+  private val d = AttributeReference("d", DoubleType)()
+  private val f = AttributeReference("f", FloatType)()
+  private val dec = AttributeReference("dec", DecimalType(10, 2))()
+  private val s = AttributeReference("s", StringType)()
+  private val ts = AttributeReference("ts", TimestampType)()
+  private val defaultTimeZone = Option(TimeZone.getDefault.getID)
+
+  @Test
+  def testTranslate(): Unit = {
+    val date = Literal(LocalDate.of(2024, 1, 1).toEpochDay.toInt, DateType)
+    Assert.assertEquals(Some("cast(`ts` as DATE) = '2024-01-01'"),
+      ExpressionTranslator.translate(EqualTo(Cast(ts, DateType, defaultTimeZone), date)))
+    Assert.assertEquals(Some("year(cast(`ts` as DATE)) = 2024"),
+      ExpressionTranslator.translate(EqualTo(Year(Cast(ts, DateType, defaultTimeZone)), Literal(2024))))
+    Assert.assertEquals(Some("date_trunc('day', `ts`) >= `ts`"),
+      ExpressionTranslator.translate(GreaterThanOrEqual(
+        TruncTimestamp(Literal(UTF8String.fromString("day"), StringType), ts, defaultTimeZone), ts)))
+    Assert.assertEquals(Some("((`d` + 1.0) > 5.0) and (cast(`k` as BIGINT) <=> 5)"),
+      ExpressionTranslator.translate(And(
+        GreaterThan(Add(d, Literal(1.0)), Literal(5.0)),
+        EqualNullSafe(Cast(k, LongType), Literal(5L)))))
+    Assert.assertEquals(Some("(not(char_length(`s`) in (1, 2))) or (`s` is null)"),
+      ExpressionTranslator.translate(Or(Not(In(Length(s), Seq(Literal(1), Literal(2)))), IsNull(s))))
+    Assert.assertEquals(Some("`s` = 'it''s'"),
+      ExpressionTranslator.translate(EqualTo(s, Literal(UTF8String.fromString("it's"), StringType))))
+  }
+
+  @Test
+  def testNotTranslate(): Unit = {
+    // integral arithmetic may overflow in Spark but not in StarRocks
+    Assert.assertEquals(None, ExpressionTranslator.translate(GreaterThan(Add(k, Literal(1)), Literal(5))))
+    // float arithmetic is done in double by StarRocks, and decimal results have other precisions
+    Assert.assertEquals(None, ExpressionTranslator.translate(GreaterThan(Multiply(f, Literal(3.0f)), Literal(1.0f))))
+    Assert.assertEquals(None, ExpressionTranslator.translate(
+      GreaterThan(Subtract(dec, Literal(Decimal(1), DecimalType(10, 2))), Literal(Decimal(5), DecimalType(10, 2)))))
+    Assert.assertEquals(None, ExpressionTranslator.translate(EqualTo(Cast(s, IntegerType), Literal(1))))
+    Assert.assertEquals(None, ExpressionTranslator.translate(EqualTo(d, Literal(Double.NaN))))
+    Assert.assertEquals(None, ExpressionTranslator.translate(And(EqualTo(k, Literal(1)), Upper(s))))
+    Assert.assertEquals(None, ExpressionTranslator.translate(GreaterThanOrEqual(
+      TruncTimestamp(Literal(UTF8String.fromString("dd"), StringType), ts, defaultTimeZone), ts)))
+  }
+}
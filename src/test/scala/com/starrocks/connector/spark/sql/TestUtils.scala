@@ -42,10 +42,18 @@ class TestUtils extends ExpectedExceptionTest {
     val lessThanOrEqualFilter = LessThanOrEqual("left", 5)
     val validInFilter = In("left", Array(1, 2, 3, 4))
     val emptyInFilter = In("left", Array.empty)
-    val invalidInFilter = In("left", Array(1, 2, 3, 4, 5))
+    val longInFilter = In("left", Array(5, 3, 1, 2, 4, 6))
+    val longStringInFilter = In("left", Array("b", "\uE000", "\uD83D\uDE00", "a", "c"))
+    val longNullInFilter = In("left", Array(1, 2, 3, 4, null))
+    val longMixedInFilter = In("left", Array(1, 2, 3, 4, "5"))
     val isNullFilter = IsNull("left")
     val isNotNullFilter = IsNotNull("left")
-    val notSupportFilter = StringContains("left", "right")
+    val equalNullSafeFilter = EqualNullSafe("left", 5)
+    val startsWithFilter = StringStartsWith("left", "it's")
+    val endsWithFilter = StringEndsWith("left", "right")
+    val containsFilter = StringContains("left", "right")
+    val notFilter = Not(In("left", Array(1, 2)))
+    val notSupportFilter = StringContains("left", "50%")
     val validAndFilter = And(equalFilter, greaterThanFilter)
     val invalidAndFilter = And(equalFilter, notSupportFilter)
     val validOrFilter = Or(equalFilter, greaterThanFilter)
@@ -58,7 +66,29 @@ class TestUtils extends ExpectedExceptionTest {
     Assert.assertEquals("`left` <= 5", Utils.compileFilter(lessThanOrEqualFilter, dialect, inValueLengthLimit).get)
     Assert.assertEquals("`left` in (1, 2, 3, 4)", Utils.compileFilter(validInFilter, dialect, inValueLengthLimit).get)
     Assert.assertTrue(Utils.compileFilter(emptyInFilter, dialect, inValueLengthLimit).isEmpty)
-    Assert.assertTrue(Utils.compileFilter(invalidInFilter, dialect, inValueLengthLimit).isEmpty)
+    Assert.assertEquals("`left` >= 1 and `left` <= 6 and (`left` in (1, 2, 3, 4, 5) or `left` in (6))",
+      Utils.compileFilter(longInFilter, dialect, inValueLengthLimit).get)
+    // strings are ordered by their UTF-8 bytes, in which U+E000 is before U+1F600
+    Assert.assertEquals("`left` >= 'a' and `left` <= '\uD83D\uDE00' and " +
+      "(`left` in ('a', 'b', 'c', '\uE000', '\uD83D\uDE00'))",
+      Utils.compileFilter(longStringInFilter, dialect, inValueLengthLimit).get)
+    Assert.assertTrue(Utils.compileFilter(longNullInFilter, dialect, inValueLengthLimit).isEmpty)
+    Assert.assertTrue(Utils.compileFilter(longMixedInFilter, dialect, inValueLengthLimit).isEmpty)
+    // the range of a list above the upper limit matches more rows, so it's left to Spark
+    val tooLongInFilter = In("left",
+      (1 to ConfigurationOptions.STARROCKS_FILTER_QUERY_IN_VALUE_UPPER_LIMIT + 1).toArray[Any])
+    Assert.assertTrue(Utils.compileFilter(tooLongInFilter, dialect, inValueLengthLimit).isEmpty)
+    Assert.assertTrue(Utils.compileFilter(Not(tooLongInFilter), dialect, inValueLengthLimit).isEmpty)
+    Assert.assertEquals("not (`left` >= 1 and `left` <= 6 and (`left` in (1, 2, 3, 4, 5) or `left` in (6)))",
+      Utils.compileFilter(Not(longInFilter), dialect, inValueLengthLimit).get)
+    Assert.assertEquals("`left` <=> 5", Utils.compileFilter(equalNullSafeFilter, dialect, inValueLengthLimit).get)
+    Assert.assertEquals("`left` like 'it''s%'",
+      Utils.compileFilter(startsWithFilter, dialect, inValueLengthLimit).get)
+    Assert.assertEquals("`left` like '%right'", Utils.compileFilter(endsWithFilter, dialect, inValueLengthLimit).get)
+    Assert.assertEquals("`left` like '%right%'", Utils.compileFilter(containsFilter, dialect, inValueLengthLimit).get)
+    Assert.assertEquals("not (`left` in (1, 2))", Utils.compileFilter(notFilter, dialect, inValueLengthLimit).get)
+    Assert.assertTrue(Utils.compileFilter(notSupportFilter, dialect, inValueLengthLimit).isEmpty)
+    Assert.assertTrue(Utils.compileFilter(Not(notSupportFilter), dialect, inValueLengthLimit).isEmpty)
     Assert.assertEquals("`left` is null", Utils.compileFilter(isNullFilter, dialect, inValueLengthLimit).get)
     Assert.assertEquals("`left` is not null", Utils.compileFilter(isNotNullFilter, dialect, inValueLengthLimit).get)
     Assert.assertEquals("(`left` = 5) and (`left` > 5)",
@@ -69,6 +99,12 @@ class TestUtils extends ExpectedExceptionTest {
     Assert.assertTrue(Utils.compileFilter(invalidOrFilter, dialect, inValueLengthLimit).isEmpty)
   }
 
+  @Test
+  def testQuote(): Unit = {
+    Assert.assertEquals("`k`", Utils.quote("k"))
+    Assert.assertEquals("`a``b`", Utils.quote("a`b"))
+  }
+
   @Test
   def testParams(): Unit = {
     val parameters1 = Map(